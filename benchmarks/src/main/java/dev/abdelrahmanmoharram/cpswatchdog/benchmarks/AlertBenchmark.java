@@ -0,0 +1,86 @@
+package dev.abdelrahmanmoharram.cpswatchdog.benchmarks;
+
+import dev.abdelrahmanmoharram.cpswatchdog.manager.CPSManager;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Staff alerts (notifyStaffMembers) with N online staff. Every operation is one click from an
+ * autoclicking suspect followed by a server tick, which analyzes the click, renders the alert
+ * and delivers the previous tick's alert to every recipient. Coalescing is disabled so every
+ * tick sends a full alert, and the audit log is off so only the main thread work is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertBenchmark {
+    private static final int CLICK_WINDOW = 1000;
+
+    @Param({"0", "1", "10", "100"})
+    public int staff;
+
+    private MockServer server;
+    private CPSManager manager;
+    private Player suspect;
+
+    @Setup
+    public void setup() throws InterruptedException {
+        server = MockServer.install();
+        server.reset();
+
+        YamlConfiguration config = MockServer.loadDefaultConfig();
+        config.set("thresholds.violations_for_alert", 1);
+        config.set("alerts.coalesce_window", 0);
+        config.set("alerts.log_to_console", false);
+        config.set("alerts.audit_log.enabled", false);
+        config.set("data.traces.enabled", false);
+        config.set("performance.max_players_per_tick", 0);
+        // Clicks arrive microseconds apart, so the window must be long enough to span real milliseconds
+        config.set("performance.max_stored_clicks", CLICK_WINDOW);
+        manager = new CPSManager(server.createPlugin(config));
+
+        for (int i = 0; i < staff; i++) {
+            manager.enableAlerts(server.addPlayer("Staff" + i, true));
+        }
+        suspect = server.addPlayer("Suspect", false);
+
+        // A full window spread over a few milliseconds, so the suspect is flagged from the first operation on
+        for (int i = 0; i < CLICK_WINDOW; i++) {
+            manager.recordLeftClick(suspect);
+            if (i % 100 == 0) {
+                Thread.sleep(1);
+            }
+        }
+        server.tick();
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.shutdown();
+        server.reset();
+    }
+
+    @Benchmark
+    public long clickAndTick() {
+        manager.recordLeftClick(suspect);
+        server.tick();
+        return server.getMessagesSent();
+    }
+}
@@ -0,0 +1,80 @@
+package dev.abdelrahmanmoharram.cpswatchdog.benchmarks;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionEngine;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionSettings;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionVerdict;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The analysis CPSManager runs for every analyzed click (analyzePlayerBehavior, which
+ * delegates to DetectionEngine.analyze) with the default config's detectors, for clean,
+ * high and extreme players.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalysisBenchmark {
+    private static final int INTERVALS = 1024;
+
+    @Param({"CLEAN", "HIGH", "EXTREME"})
+    public ClickProfile profile;
+
+    private DetectionEngine engine;
+    private PlayerCPSData data;
+    private long[] intervals;
+    private long time;
+    private int next;
+
+    @Setup
+    public void setup() {
+        engine = new DetectionEngine(DetectionSettings.load(MockServer.loadDefaultConfig()));
+        data = engine.createPlayerData("Bench");
+
+        intervals = profile.intervals(INTERVALS, 42);
+
+        // Enough clicks to fill every window the detectors look at
+        time = 1_000_000L;
+        for (int i = 0; i < 200; i++) {
+            recordNext();
+        }
+    }
+
+    private void recordNext() {
+        time += intervals[next++ & (INTERVALS - 1)];
+        data.addClick(ClickType.LEFT, time);
+    }
+
+    /**
+     * Analysis alone, on the same recorded clicks
+     */
+    @Benchmark
+    public DetectionVerdict analyze() {
+        return engine.analyze(data, ClickType.LEFT);
+    }
+
+    /**
+     * Recording a click and analyzing it, the full per-click cost
+     */
+    @Benchmark
+    public DetectionVerdict recordAndAnalyze() {
+        recordNext();
+        return engine.analyze(data, ClickType.LEFT);
+    }
+}
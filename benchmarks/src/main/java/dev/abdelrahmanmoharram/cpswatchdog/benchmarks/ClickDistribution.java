@@ -0,0 +1,49 @@
+package dev.abdelrahmanmoharram.cpswatchdog.benchmarks;
+
+import java.util.Random;
+
+/**
+ * How a simulated player spaces their clicks around a target CPS
+ */
+public enum ClickDistribution {
+    /** Gaussian spacing with 30% spread and an occasional pause of up to a second */
+    HUMAN {
+        @Override
+        public double nextInterval(double cps, Random random) {
+            double mean = 1000.0 / cps;
+            if (random.nextDouble() < 0.02) {
+                return mean + 200 + random.nextDouble() * 800;
+            }
+            return Math.max(mean * 0.25, mean + random.nextGaussian() * mean * 0.3);
+        }
+    },
+    /** Exactly the target CPS */
+    AUTOCLICKER {
+        @Override
+        public double nextInterval(double cps, Random random) {
+            return 1000.0 / cps;
+        }
+    },
+    /** An autoclicker with uniform jitter of up to 20% to look human */
+    JITTER {
+        @Override
+        public double nextInterval(double cps, Random random) {
+            double mean = 1000.0 / cps;
+            return mean * (0.8 + random.nextDouble() * 0.4);
+        }
+    };
+
+    /**
+     * @return Milliseconds until the next click
+     */
+    public abstract double nextInterval(double cps, Random random);
+
+    public static ClickDistribution fromString(String name) {
+        for (ClickDistribution distribution : values()) {
+            if (distribution.name().equalsIgnoreCase(name)) {
+                return distribution;
+            }
+        }
+        return null;
+    }
+}
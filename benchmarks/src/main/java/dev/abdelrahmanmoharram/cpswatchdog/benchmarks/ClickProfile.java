@@ -0,0 +1,45 @@
+package dev.abdelrahmanmoharram.cpswatchdog.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Click timings used to prepare benchmark players
+ */
+public enum ClickProfile {
+    /** About 8 CPS with human jitter */
+    CLEAN(125, 40),
+    /** About 16 CPS with jitter, above high_cps but below extreme_cps */
+    HIGH(62, 8),
+    /** A steady 25 CPS autoclicker */
+    EXTREME(40, 0);
+
+    private final long meanInterval;
+    private final long jitter;
+
+    ClickProfile(long meanInterval, long jitter) {
+        this.meanInterval = meanInterval;
+        this.jitter = jitter;
+    }
+
+    /**
+     * @return Milliseconds between consecutive clicks, drawn from this profile
+     */
+    public long nextInterval(Random random) {
+        if (jitter == 0) {
+            return meanInterval;
+        }
+        return meanInterval - jitter + (long) random.nextInt((int) (2 * jitter + 1));
+    }
+
+    /**
+     * @return Intervals between consecutive clicks, reproducible for the same seed
+     */
+    public long[] intervals(int count, long seed) {
+        Random random = new Random(seed);
+        long[] intervals = new long[count];
+        for (int i = 0; i < count; i++) {
+            intervals[i] = nextInterval(random);
+        }
+        return intervals;
+    }
+}
@@ -0,0 +1,84 @@
+package dev.abdelrahmanmoharram.cpswatchdog.benchmarks;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+import dev.abdelrahmanmoharram.cpswatchdog.manager.CPSManager;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What ClickListener costs per click: CPSManager.recordLeftClick (player lookup, recording
+ * and scheduling the analysis), and PlayerCPSData.addLeftClick on its own.
+ * Analysis itself is measured by {@link AnalysisBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClickRecordingBenchmark {
+
+    @Param({"1", "1000"})
+    public int players;
+
+    private MockServer server;
+    private CPSManager manager;
+    private Player[] onlinePlayers;
+    private PlayerCPSData data;
+    private long time;
+    private int next;
+
+    @Setup
+    public void setup() {
+        server = MockServer.install();
+        server.reset();
+
+        YamlConfiguration config = MockServer.loadDefaultConfig();
+        config.set("alerts.log_to_console", false);
+        config.set("alerts.audit_log.enabled", false);
+        config.set("data.traces.enabled", false);
+        manager = new CPSManager(server.createPlugin(config));
+
+        onlinePlayers = new Player[players];
+        for (int i = 0; i < players; i++) {
+            onlinePlayers[i] = server.addPlayer("Player" + i, false);
+        }
+
+        data = new PlayerCPSData("Bench", config.getInt("performance.max_stored_clicks", 20));
+        time = 1_000_000L;
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.shutdown();
+        server.reset();
+    }
+
+    @Benchmark
+    public CPSManager recordLeftClick() {
+        manager.recordLeftClick(onlinePlayers[next++ % players]);
+        return manager;
+    }
+
+    @Benchmark
+    public PlayerCPSData addLeftClick() {
+        time += 50;
+        data.addClick(ClickType.LEFT, time);
+        return data;
+    }
+}
@@ -0,0 +1,85 @@
+package dev.abdelrahmanmoharram.cpswatchdog.benchmarks;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.ConsistencyDetector;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.Detector;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectorPipeline;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionVerdict;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.PatternDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The variance (consistency) and pattern checks on their own, at different click window
+ * sizes (performance.max_stored_clicks). The window decides how many clicks each CPS
+ * sample is computed from, so recordClick shows what a bigger window costs per click.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DetectorBenchmark {
+
+    @Param({"consistency", "pattern"})
+    public String detector;
+
+    @Param({"10", "20", "50", "100", "200"})
+    public int windowSize;
+
+    @Param({"CLEAN", "EXTREME"})
+    public ClickProfile profile;
+
+    private DetectorPipeline pipeline;
+    private PlayerCPSData data;
+    private DetectionVerdict verdict;
+    private long[] intervals;
+    private long time;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Detector check = detector.equals("pattern") ? new PatternDetector(0.95) : new ConsistencyDetector(0.1);
+        pipeline = new DetectorPipeline();
+        pipeline.register(ClickType.LEFT, check);
+
+        data = new PlayerCPSData("Bench", windowSize, 100);
+        verdict = data.getVerdict();
+
+        intervals = profile.intervals(1024, 42);
+        time = 1_000_000L;
+        for (int i = 0; i < windowSize * 2; i++) {
+            recordNext();
+        }
+    }
+
+    private void recordNext() {
+        time += intervals[next++ & (intervals.length - 1)];
+        data.addClick(ClickType.LEFT, time);
+    }
+
+    @Benchmark
+    public DetectionVerdict evaluate() {
+        pipeline.evaluate(data, ClickType.LEFT, verdict);
+        return verdict;
+    }
+
+    @Benchmark
+    public DetectionVerdict recordClick() {
+        recordNext();
+        return verdict;
+    }
+}
@@ -0,0 +1,252 @@
+package dev.abdelrahmanmoharram.cpswatchdog.benchmarks;
+
+import dev.abdelrahmanmoharram.cpswatchdog.manager.CPSManager;
+import dev.abdelrahmanmoharram.cpswatchdog.services.AuditLogger;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Click storm load test: thousands of simulated players clicking against a real CPSManager on
+ * the mock server, paced in real time at 20 ticks per second like a live server.
+ *
+ * Each tick delivers the clicks that fall inside it (as the click listener would), then runs
+ * the plugin's scheduled tasks. Both phases count as main thread time. Async tasks run between
+ * ticks and are not counted.
+ *
+ * Usage: java -cp target/benchmarks.jar dev.abdelrahmanmoharram.cpswatchdog.benchmarks.LoadGenerator
+ *        [--players 1000] [--cps 15] [--mix human:0.9,autoclicker:0.05:20,jitter:0.05]
+ *        [--staff 5] [--seconds 30] [--config config.yml] [--async] [--seed 1]
+ *
+ * --mix lists distribution:fraction[:cps] entries; fractions are normalized and the CPS
+ * defaults to --cps.
+ */
+public final class LoadGenerator {
+    private static final long TICK_MILLIS = 50;
+
+    private final MockServer server;
+    private final CPSManager manager;
+    private final SimulatedPlayer[] players;
+    private final int staff;
+    private final Random random;
+
+    private LoadGenerator(MockServer server, CPSManager manager, SimulatedPlayer[] players, int staff, Random random) {
+        this.server = server;
+        this.manager = manager;
+        this.players = players;
+        this.staff = staff;
+        this.random = random;
+    }
+
+    public static void main(String[] args) {
+        Settings settings;
+        try {
+            settings = Settings.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: LoadGenerator [--players N] [--cps X] [--mix human:0.9,autoclicker:0.05:20,jitter:0.05]"
+                    + " [--staff N] [--seconds N] [--config config.yml] [--async] [--seed N]");
+            System.exit(2);
+            return;
+        }
+
+        MockServer server = MockServer.install();
+        YamlConfiguration config = settings.configFile != null
+                ? YamlConfiguration.loadConfiguration(settings.configFile)
+                : MockServer.loadDefaultConfig();
+        if (settings.configFile == null) {
+            // Thousands of alerts would flood the console
+            config.set("alerts.log_to_console", false);
+        }
+        if (settings.async) {
+            config.set("performance.async_processing", true);
+        }
+
+        CPSManager manager = new CPSManager(server.createPlugin(config));
+        for (int i = 0; i < settings.staff; i++) {
+            manager.enableAlerts(server.addPlayer("Staff" + i, true));
+        }
+
+        Random random = new Random(settings.seed);
+        SimulatedPlayer[] players = new SimulatedPlayer[settings.players];
+        for (int i = 0; i < players.length; i++) {
+            Mix mix = settings.pick(random);
+            Player player = server.addPlayer(mix.distribution.name().toLowerCase() + i, false);
+            // Spread the first clicks over a second so players don't start in lockstep
+            players[i] = new SimulatedPlayer(player, mix.distribution, mix.cps, random.nextDouble() * 1000.0);
+        }
+
+        LoadGenerator generator = new LoadGenerator(server, manager, players, settings.staff, random);
+        LoadReport report = generator.run((int) (settings.seconds * 1000 / TICK_MILLIS));
+        report.print(System.out);
+        System.exit(0);
+    }
+
+    private LoadReport run(int ticks) {
+        LoadReport report = new LoadReport(players.length, staff, ticks);
+        long heapBefore = usedHeapAfterGc();
+        long started = System.nanoTime();
+
+        for (int tick = 0; tick < ticks; tick++) {
+            double tickEnd = (tick + 1) * (double) TICK_MILLIS;
+
+            long tickStart = System.nanoTime();
+            for (SimulatedPlayer simulated : players) {
+                while (simulated.nextClickAt < tickEnd) {
+                    long clickStart = System.nanoTime();
+                    manager.recordLeftClick(simulated.player);
+                    report.recordClick(System.nanoTime() - clickStart);
+                    simulated.nextClickAt += simulated.distribution.nextInterval(simulated.cps, random);
+                }
+            }
+            long tasksStart = System.nanoTime();
+            server.tick();
+            report.recordTick(tasksStart - tickStart, System.nanoTime() - tasksStart);
+
+            server.runAsyncTasks();
+            if (tick % 20 == 0) {
+                report.sampleHeap(usedHeap());
+            }
+
+            // Keep real time so the plugin's own clock sees 20 ticks per second
+            long sleep = started + (tick + 1) * TICK_MILLIS * 1_000_000L - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+            }
+        }
+        report.finish(System.nanoTime() - started);
+
+        manager.shutdown();
+        AuditLogger auditLogger = manager.getAuditLogger();
+        report.setAlerts(server.getMessagesSent(),
+                auditLogger.getWrittenCount() + auditLogger.getQueuedCount(), auditLogger.getDroppedCount());
+        report.setHeap(heapBefore, usedHeapAfterGc());
+        return report;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return usedHeap();
+    }
+
+    private static final class SimulatedPlayer {
+        final Player player;
+        final ClickDistribution distribution;
+        final double cps;
+        double nextClickAt;
+
+        SimulatedPlayer(Player player, ClickDistribution distribution, double cps, double firstClickAt) {
+            this.player = player;
+            this.distribution = distribution;
+            this.cps = cps;
+            this.nextClickAt = firstClickAt;
+        }
+    }
+
+    private static final class Mix {
+        final ClickDistribution distribution;
+        final double weight;
+        final double cps;
+
+        Mix(ClickDistribution distribution, double weight, double cps) {
+            this.distribution = distribution;
+            this.weight = weight;
+            this.cps = cps;
+        }
+    }
+
+    private static final class Settings {
+        int players = 1000;
+        double cps = 15;
+        String mixSpec = "human:1";
+        int staff = 5;
+        double seconds = 30;
+        File configFile;
+        boolean async;
+        long seed = 1;
+        final List<Mix> mix = new ArrayList<>();
+        double totalWeight;
+
+        static Settings parse(String[] args) {
+            Settings settings = new Settings();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--async")) {
+                    settings.async = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+
+                String value = args[++i];
+                try {
+                    switch (arg) {
+                        case "--players": settings.players = Integer.parseInt(value); break;
+                        case "--cps": settings.cps = Double.parseDouble(value); break;
+                        case "--mix": settings.mixSpec = value; break;
+                        case "--staff": settings.staff = Integer.parseInt(value); break;
+                        case "--seconds": settings.seconds = Double.parseDouble(value); break;
+                        case "--config": settings.configFile = new File(value); break;
+                        case "--seed": settings.seed = Long.parseLong(value); break;
+                        default: throw new IllegalArgumentException("Unknown option: " + arg);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid value for " + arg + ": " + value);
+                }
+            }
+
+            if (settings.players <= 0 || settings.cps <= 0 || settings.seconds <= 0 || settings.staff < 0) {
+                throw new IllegalArgumentException("--players, --cps and --seconds must be positive");
+            }
+            if (settings.configFile != null && !settings.configFile.isFile()) {
+                throw new IllegalArgumentException("Config file not found: " + settings.configFile);
+            }
+            settings.parseMix();
+            return settings;
+        }
+
+        private void parseMix() {
+            for (String entry : mixSpec.split(",")) {
+                String[] parts = entry.trim().split(":");
+                ClickDistribution distribution = ClickDistribution.fromString(parts[0]);
+                if (distribution == null || parts.length > 3) {
+                    throw new IllegalArgumentException("Invalid mix entry: " + entry);
+                }
+
+                try {
+                    double weight = parts.length > 1 ? Double.parseDouble(parts[1]) : 1.0;
+                    double mixCps = parts.length > 2 ? Double.parseDouble(parts[2]) : cps;
+                    if (weight <= 0 || mixCps <= 0) {
+                        throw new IllegalArgumentException("Invalid mix entry: " + entry);
+                    }
+                    mix.add(new Mix(distribution, weight, mixCps));
+                    totalWeight += weight;
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid mix entry: " + entry);
+                }
+            }
+        }
+
+        Mix pick(Random random) {
+            double roll = random.nextDouble() * totalWeight;
+            for (Mix entry : mix) {
+                roll -= entry.weight;
+                if (roll < 0) {
+                    return entry;
+                }
+            }
+            return mix.get(mix.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package dev.abdelrahmanmoharram.cpswatchdog.benchmarks;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Main thread cost, latency, heap and alert volume of one load run
+ */
+public class LoadReport {
+    private static final long TICK_NANOS = 50_000_000L;
+
+    private final int players;
+    private final int staff;
+    private final long[] tickNanos;
+    private final long[] clickPhaseNanos;
+    private final long[] taskPhaseNanos;
+    private long[] clickLatencies = new long[1 << 16];
+    private int clicks;
+    private int ticks;
+
+    private long heapBefore;
+    private long heapAfter;
+    private long heapPeak;
+    private long elapsedNanos;
+    private long staffMessages;
+    private long loggedViolations;
+    private long droppedViolations;
+
+    LoadReport(int players, int staff, int maxTicks) {
+        this.players = players;
+        this.staff = staff;
+        this.tickNanos = new long[maxTicks];
+        this.clickPhaseNanos = new long[maxTicks];
+        this.taskPhaseNanos = new long[maxTicks];
+    }
+
+    void recordClick(long nanos) {
+        if (clicks == clickLatencies.length) {
+            clickLatencies = Arrays.copyOf(clickLatencies, clicks * 2);
+        }
+        clickLatencies[clicks++] = nanos;
+    }
+
+    /**
+     * @param clickNanos Time spent handling the tick's clicks, as the click listener would
+     * @param taskNanos Time spent in the plugin's scheduled tasks (analysis, alert delivery)
+     */
+    void recordTick(long clickNanos, long taskNanos) {
+        clickPhaseNanos[ticks] = clickNanos;
+        taskPhaseNanos[ticks] = taskNanos;
+        tickNanos[ticks] = clickNanos + taskNanos;
+        ticks++;
+    }
+
+    void sampleHeap(long used) {
+        heapPeak = Math.max(heapPeak, used);
+    }
+
+    void setHeap(long before, long after) {
+        this.heapBefore = before;
+        this.heapAfter = after;
+        sampleHeap(after);
+    }
+
+    void setAlerts(long staffMessages, long loggedViolations, long droppedViolations) {
+        this.staffMessages = staffMessages;
+        this.loggedViolations = loggedViolations;
+        this.droppedViolations = droppedViolations;
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = elapsedNanos / 1e9;
+        long[] sortedTicks = sorted(tickNanos, ticks);
+        long[] sortedClicks = sorted(clickLatencies, clicks);
+
+        out.println("=== Load ===");
+        out.printf("Players: %d, staff: %d, ticks: %d, clicks: %d (%.0f clicks/s)%n",
+                players, staff, ticks, clicks, clicks / Math.max(seconds, 1e-9));
+
+        out.println();
+        out.println("=== Main thread per tick ===");
+        out.printf("Mean: %.3f ms (clicks %.3f ms, tasks %.3f ms)%n",
+                mean(tickNanos, ticks) / 1e6, mean(clickPhaseNanos, ticks) / 1e6, mean(taskPhaseNanos, ticks) / 1e6);
+        out.printf("p50=%.3f ms p99=%.3f ms max=%.3f ms%n",
+                percentile(sortedTicks, 50) / 1e6, percentile(sortedTicks, 99) / 1e6, percentile(sortedTicks, 100) / 1e6);
+        out.printf("Share of the 50 ms tick budget: %.2f%%, ticks over budget: %d%n",
+                mean(tickNanos, ticks) * 100.0 / TICK_NANOS, countOver(tickNanos, ticks, TICK_NANOS));
+
+        out.println();
+        out.println("=== Click latency ===");
+        out.printf("p50=%d ns p99=%d ns p99.9=%d ns max=%d ns%n",
+                percentile(sortedClicks, 50), percentile(sortedClicks, 99),
+                percentile(sortedClicks, 99.9), percentile(sortedClicks, 100));
+
+        out.println();
+        out.println("=== Heap ===");
+        out.printf("Before: %.1f MB, after: %.1f MB, growth: %+.1f MB, peak: %.1f MB%n",
+                heapBefore / 1048576.0, heapAfter / 1048576.0, (heapAfter - heapBefore) / 1048576.0, heapPeak / 1048576.0);
+
+        out.println();
+        out.println("=== Alerts ===");
+        out.printf("Violations logged: %d (%.1f/s), dropped by the audit queue: %d%n",
+                loggedViolations, loggedViolations / Math.max(seconds, 1e-9), droppedViolations);
+        out.printf("Staff messages: %d (%.1f/s per staff member)%n",
+                staffMessages, staff > 0 ? staffMessages / (double) staff / Math.max(seconds, 1e-9) : 0.0);
+    }
+
+    private static long[] sorted(long[] values, int count) {
+        long[] copy = Arrays.copyOf(values, count);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double mean(long[] values, int count) {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += values[i];
+        }
+        return count > 0 ? (double) sum / count : 0.0;
+    }
+
+    private static int countOver(long[] values, int count, long limit) {
+        int over = 0;
+        for (int i = 0; i < count; i++) {
+            if (values[i] > limit) {
+                over++;
+            }
+        }
+        return over;
+    }
+}
@@ -0,0 +1,370 @@
+package dev.abdelrahmanmoharram.cpswatchdog.benchmarks;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The part of the Bukkit server CPSManager touches, built from dynamic proxies so the plugin
+ * can run outside a server: online players, a scheduler driven by {@link #tick()}, message
+ * delivery and a plugin backed by any configuration.
+ *
+ * Bukkit only accepts one server per JVM, so {@link #install()} always returns the same
+ * instance. Call {@link #reset()} between runs.
+ */
+public final class MockServer {
+    private static MockServer installed;
+
+    private final Logger logger = Logger.getLogger("MockServer");
+    private final Server server;
+    private final BukkitScheduler scheduler;
+    private final List<Player> onlinePlayers = new ArrayList<>();
+    private final List<Player> onlinePlayersView = Collections.unmodifiableList(onlinePlayers);
+    private final Map<UUID, Player> playersById = new HashMap<>();
+    private final Map<String, Player> playersByName = new HashMap<>();
+    private final List<ScheduledTask> tasks = new ArrayList<>();
+    private final List<ScheduledTask> pendingTasks = new ArrayList<>();
+
+    private long currentTick;
+    private int nextTaskId = 1;
+    private long messagesSent;
+
+    private MockServer() {
+        logger.setLevel(Level.WARNING);
+        this.scheduler = proxy(BukkitScheduler.class, this::handleScheduler);
+        this.server = proxy(Server.class, this::handleServer);
+    }
+
+    /**
+     * Install the mock as the Bukkit server, or return the one already installed
+     */
+    public static synchronized MockServer install() {
+        if (installed == null) {
+            installed = new MockServer();
+            Bukkit.setServer(installed.server);
+        }
+        return installed;
+    }
+
+    /**
+     * Remove all players and scheduled tasks
+     */
+    public synchronized void reset() {
+        onlinePlayers.clear();
+        playersById.clear();
+        playersByName.clear();
+        tasks.clear();
+        pendingTasks.clear();
+        currentTick = 0;
+        messagesSent = 0;
+    }
+
+    /**
+     * Load the config.yml bundled in the plugin jar
+     */
+    public static YamlConfiguration loadDefaultConfig() {
+        InputStream in = MockServer.class.getResourceAsStream("/config.yml");
+        if (in == null) {
+            throw new IllegalStateException("config.yml not found on the classpath");
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return YamlConfiguration.loadConfiguration(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read config.yml", e);
+        }
+    }
+
+    /**
+     * Create a plugin that serves the given configuration and keeps its files in a temporary folder
+     */
+    public Plugin createPlugin(FileConfiguration config) {
+        File dataFolder;
+        try {
+            dataFolder = Files.createTempDirectory("cpswatchdog-mock").toFile();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create a data folder", e);
+        }
+
+        Logger pluginLogger = Logger.getLogger("CPSWatchdog");
+        pluginLogger.setLevel(Level.WARNING);
+        return proxy(Plugin.class, (self, method, args) -> {
+            switch (method.getName()) {
+                case "getConfig": return config;
+                case "getDataFolder": return dataFolder;
+                case "getLogger": return pluginLogger;
+                case "getName": return "CPSWatchdog";
+                case "getServer": return server;
+                case "isEnabled": return true;
+                default: return objectMethod(self, method, args, "CPSWatchdog");
+            }
+        });
+    }
+
+    /**
+     * Add an online player
+     * @param staff Whether the player holds every permission, including cpswatchdog.notify
+     */
+    public synchronized Player addPlayer(String name, boolean staff) {
+        UUID uuid = UUID.nameUUIDFromBytes(("MockPlayer:" + name).getBytes(StandardCharsets.UTF_8));
+        Player player = proxy(Player.class, (self, method, args) -> {
+            switch (method.getName()) {
+                case "getUniqueId": return uuid;
+                case "getName":
+                case "getDisplayName": return name;
+                case "isOnline": return playersById.get(uuid) == self;
+                case "hasPermission":
+                case "isOp": return staff;
+                case "sendMessage":
+                    messagesSent += args[0] instanceof String[] ? ((String[]) args[0]).length : 1;
+                    return null;
+                case "getServer": return server;
+                default: return objectMethod(self, method, args, name);
+            }
+        });
+
+        onlinePlayers.add(player);
+        playersById.put(uuid, player);
+        playersByName.put(name.toLowerCase(), player);
+        return player;
+    }
+
+    public synchronized void removePlayer(Player player) {
+        onlinePlayers.remove(player);
+        playersById.remove(player.getUniqueId());
+        playersByName.remove(player.getName().toLowerCase());
+    }
+
+    /**
+     * Advance one tick and run the synchronous tasks that are due
+     */
+    public void tick() {
+        currentTick++;
+        runDueTasks(false);
+    }
+
+    /**
+     * Run the asynchronous tasks that are due, on the calling thread
+     */
+    public void runAsyncTasks() {
+        runDueTasks(true);
+    }
+
+    private void runDueTasks(boolean async) {
+        synchronized (this) {
+            tasks.addAll(pendingTasks);
+            pendingTasks.clear();
+        }
+
+        Iterator<ScheduledTask> iterator = tasks.iterator();
+        while (iterator.hasNext()) {
+            ScheduledTask task = iterator.next();
+            if (task.cancelled) {
+                iterator.remove();
+                continue;
+            }
+            if (task.async != async || task.nextRun > currentTick) {
+                continue;
+            }
+
+            task.runnable.run();
+            if (task.period > 0 && !task.cancelled) {
+                task.nextRun = currentTick + task.period;
+            } else {
+                iterator.remove();
+            }
+        }
+    }
+
+    public long getCurrentTick() { return currentTick; }
+    public long getMessagesSent() { return messagesSent; }
+    public Collection<Player> getOnlinePlayers() { return onlinePlayersView; }
+    public Server getServer() { return server; }
+
+    private Object handleServer(Object self, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getLogger": return logger;
+            case "getName": return "MockServer";
+            case "getVersion":
+            case "getBukkitVersion": return "1.8.8-R0.1-SNAPSHOT";
+            case "getScheduler": return scheduler;
+            case "getOnlinePlayers": return onlinePlayersView;
+            case "isPrimaryThread": return true;
+            case "getPlayer":
+                synchronized (this) {
+                    return args[0] instanceof UUID ? playersById.get(args[0]) : findPlayer((String) args[0]);
+                }
+            case "getPlayerExact":
+                synchronized (this) {
+                    return playersByName.get(((String) args[0]).toLowerCase());
+                }
+            case "broadcastMessage":
+                synchronized (this) {
+                    messagesSent += onlinePlayers.size();
+                    return onlinePlayers.size();
+                }
+            default: return objectMethod(self, method, args, "MockServer");
+        }
+    }
+
+    private Player findPlayer(String name) {
+        Player exact = playersByName.get(name.toLowerCase());
+        if (exact != null) {
+            return exact;
+        }
+        for (Player player : onlinePlayers) {
+            if (player.getName().toLowerCase().startsWith(name.toLowerCase())) {
+                return player;
+            }
+        }
+        return null;
+    }
+
+    private Object handleScheduler(Object self, Method method, Object[] args) {
+        String name = method.getName();
+        if (name.startsWith("runTask") || name.startsWith("schedule")) {
+            Plugin plugin = (Plugin) args[0];
+            Runnable runnable = (Runnable) args[1];
+            long delay = args.length > 2 ? (Long) args[2] : 0L;
+            long period = args.length > 3 ? (Long) args[3] : 0L;
+            boolean async = name.contains("Async");
+
+            ScheduledTask task = schedule(plugin, runnable, delay, period, async);
+            return method.getReturnType() == int.class ? task.id : task.handle;
+        }
+
+        switch (name) {
+            case "cancelTask":
+                cancel((Integer) args[0]);
+                return null;
+            case "cancelTasks":
+            case "cancelAllTasks":
+                cancelAll();
+                return null;
+            default: return objectMethod(self, method, args, "MockScheduler");
+        }
+    }
+
+    private synchronized ScheduledTask schedule(Plugin plugin, Runnable runnable, long delay, long period, boolean async) {
+        ScheduledTask task = new ScheduledTask(nextTaskId++, runnable, currentTick + Math.max(1L, delay), period, async);
+        task.handle = proxy(BukkitTask.class, (self, method, args) -> {
+            switch (method.getName()) {
+                case "getTaskId": return task.id;
+                case "getOwner": return plugin;
+                case "isSync": return !task.async;
+                case "cancel":
+                    task.cancelled = true;
+                    return null;
+                default: return objectMethod(self, method, args, "MockTask-" + task.id);
+            }
+        });
+        pendingTasks.add(task);
+        return task;
+    }
+
+    private synchronized void cancel(int taskId) {
+        for (ScheduledTask task : tasks) {
+            if (task.id == taskId) {
+                task.cancelled = true;
+            }
+        }
+        for (ScheduledTask task : pendingTasks) {
+            if (task.id == taskId) {
+                task.cancelled = true;
+            }
+        }
+    }
+
+    private synchronized void cancelAll() {
+        for (ScheduledTask task : tasks) {
+            task.cancelled = true;
+        }
+        pendingTasks.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(MockServer.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    // Object methods by identity, and zero/false/null for everything the plugin doesn't use
+    private static Object objectMethod(Object self, Method method, Object[] args, String description) {
+        switch (method.getName()) {
+            case "equals": return self == args[0];
+            case "hashCode": return System.identityHashCode(self);
+            case "toString": return description;
+            default: return defaultValue(method.getReturnType());
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+
+    private static final class ScheduledTask {
+        final int id;
+        final Runnable runnable;
+        final long period;
+        final boolean async;
+        long nextRun;
+        volatile boolean cancelled;
+        BukkitTask handle;
+
+        ScheduledTask(int id, Runnable runnable, long nextRun, long period, boolean async) {
+            this.id = id;
+            this.runnable = runnable;
+            this.nextRun = nextRun;
+            this.period = period;
+            this.async = async;
+        }
+    }
+}
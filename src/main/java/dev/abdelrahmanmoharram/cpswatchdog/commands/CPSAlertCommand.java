@@ -10,14 +10,12 @@ import org.bukkit.entity.Player;
 
 public class CPSAlertCommand implements CommandExecutor {
     private final cpswatchdog plugin;
-    private final CooldownService cooldownService;
+    private final CooldownService.Channel cooldown;
 
     public CPSAlertCommand(cpswatchdog plugin) {
         this.plugin = plugin;
         // 5 second cooldown for command usage
-        this.cooldownService = new CooldownService(5);
-        // Start the cleanup task to prevent memory leaks
-        this.cooldownService.startCleanupTask(plugin);
+        this.cooldown = plugin.getCooldownService().channel("cpsalert", 5);
     }
 
     @Override
@@ -36,8 +34,8 @@ public class CPSAlertCommand implements CommandExecutor {
 
         // Check if player is on cooldown (except for help command)
         if (args.length == 0 || !args[0].equalsIgnoreCase("help")) {
-            if (cooldownService.isOnCooldown(player)) {
-                long remaining = cooldownService.getRemaining(player);
+            if (cooldown.isOnCooldown(player)) {
+                long remaining = cooldown.getRemaining(player);
                 sender.sendMessage(ChatColor.RED + "Please wait " + remaining + " seconds before using this command again.");
                 return true;
             }
@@ -46,7 +44,7 @@ public class CPSAlertCommand implements CommandExecutor {
         try {
             if (args.length == 0) {
                 // Set cooldown before processing the toggle
-                cooldownService.setCooldown(player);
+                cooldown.setCooldown(player);
 
                 // Toggle alerts and provide feedback
                 boolean enabled = plugin.getCPSManager().toggleAlerts(player);
@@ -60,7 +58,7 @@ public class CPSAlertCommand implements CommandExecutor {
                 }
             } else if (args[0].equalsIgnoreCase("status")) {
                 // Set cooldown for status command as well
-                cooldownService.setCooldown(player);
+                cooldown.setCooldown(player);
 
                 // Show current alert status
                 boolean enabled = plugin.getCPSManager().hasAlertsEnabled(player);
@@ -88,14 +86,4 @@ public class CPSAlertCommand implements CommandExecutor {
         sender.sendMessage(ChatColor.GRAY + "Alerts notify you when players exceed CPS thresholds or show suspicious patterns.");
         sender.sendMessage(ChatColor.DARK_GRAY + "Note: Commands have a 5-second cooldown to prevent spam.");
     }
-
-    /**
-     * Clean up resources when the command handler is no longer needed
-     * Call this method when the plugin is disabled
-     */
-    public void cleanup() {
-        if (cooldownService != null) {
-            cooldownService.stopCleanupTask();
-        }
-    }
 }
\ No newline at end of file
@@ -12,12 +12,12 @@ import org.bukkit.entity.Player;
 
 public class CPSCommand implements CommandExecutor {
     private final cpswatchdog plugin;
-    private final CooldownService cooldownService;
+    private final CooldownService.Channel cooldown;
 
     public CPSCommand(cpswatchdog plugin) {
         this.plugin = plugin;
-        // Initialize cooldown service with 5 seconds cooldown
-        this.cooldownService = new CooldownService(5);
+        // 5 second cooldown on the shared cooldown service
+        this.cooldown = plugin.getCooldownService().channel("cps", 5);
     }
 
     @Override
@@ -30,13 +30,13 @@ public class CPSCommand implements CommandExecutor {
         // Check cooldown for players (not console)
         if (sender instanceof Player) {
             Player player = (Player) sender;
-            if (cooldownService.isOnCooldown(player)) {
-                long remaining = cooldownService.getRemaining(player);
+            if (cooldown.isOnCooldown(player)) {
+                long remaining = cooldown.getRemaining(player);
                 sender.sendMessage(ChatColor.RED + "Please wait " + remaining + " seconds before using this command again.");
                 return true;
             }
             // Set cooldown for the player
-            cooldownService.setCooldown(player);
+            cooldown.setCooldown(player);
         }
 
         String targetName = null;
@@ -1,8 +1,14 @@
 package dev.abdelrahmanmoharram.cpswatchdog.commands;
 
 import dev.abdelrahmanmoharram.cpswatchdog.cpswatchdog;
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
 import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+import dev.abdelrahmanmoharram.cpswatchdog.data.SessionSummary;
+import dev.abdelrahmanmoharram.cpswatchdog.manager.CPSManager;
+import dev.abdelrahmanmoharram.cpswatchdog.metrics.PerformanceMetrics;
+import dev.abdelrahmanmoharram.cpswatchdog.services.AuditLogger;
 import dev.abdelrahmanmoharram.cpswatchdog.services.CooldownService;
+import dev.abdelrahmanmoharram.cpswatchdog.services.SessionStore;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
@@ -10,14 +16,19 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class CPSStatsCommand implements CommandExecutor {
     private final cpswatchdog plugin;
-    private final CooldownService cooldownService;
+    private final CooldownService.Channel cooldown;
+    // Snapshot of each sender's previous --perf, keyed by player UUID or "console"
+    private final Map<String, PerformanceMetrics.Snapshot> lastPerfSnapshots = new HashMap<>();
 
     // Enum for better flag handling
     public enum StatsFlag {
@@ -25,7 +36,8 @@ public class CPSStatsCommand implements CommandExecutor {
         RIGHT("-r", "--right"),
         HISTORY("-h", "--history"),
         DETAILED("-d", "--detailed"),
-        EXPORT("-e", "--export");
+        EXPORT("-e", "--export"),
+        PERF("-p", "--perf");
 
         private final String shortForm;
         private final String longForm;
@@ -48,7 +60,7 @@ public class CPSStatsCommand implements CommandExecutor {
 
     public CPSStatsCommand(cpswatchdog plugin) {
         this.plugin = plugin;
-        this.cooldownService = new CooldownService(3); // 3 second cooldown for stats command
+        this.cooldown = plugin.getCooldownService().channel("cpsstats", 3); // 3 second cooldown for stats command
     }
 
     @Override
@@ -61,15 +73,25 @@ public class CPSStatsCommand implements CommandExecutor {
         // Check cooldown for players (not console)
         if (sender instanceof Player) {
             Player player = (Player) sender;
-            if (cooldownService.isOnCooldown(player)) {
-                long remaining = cooldownService.getRemaining(player);
+            if (cooldown.isOnCooldown(player)) {
+                long remaining = cooldown.getRemaining(player);
                 sender.sendMessage(ChatColor.RED + "Please wait " + remaining + " seconds before using this command again.");
                 return true;
             }
-            cooldownService.setCooldown(player);
+            cooldown.setCooldown(player);
         }
 
         try {
+            // Performance metrics are plugin-wide and take no player
+            if (args.length == 1 && StatsFlag.fromString(args[0]) == StatsFlag.PERF) {
+                if (!sender.hasPermission("cpswatchdog.perf")) {
+                    sender.sendMessage(ChatColor.RED + "You don't have permission to view performance metrics.");
+                    return true;
+                }
+                showPerformance(sender);
+                return true;
+            }
+
             CommandArgs parsedArgs = parseArguments(sender, args);
             if (parsedArgs == null) {
                 return true; // Error already sent
@@ -151,6 +173,10 @@ public class CPSStatsCommand implements CommandExecutor {
             sender.sendMessage(ChatColor.RED + "Cannot use both -l/--left and -r/--right flags together.");
             return null;
         }
+        if (result.flags.contains(StatsFlag.PERF)) {
+            sender.sendMessage(ChatColor.RED + "-p/--perf must be used on its own: /cpsstats --perf");
+            return null;
+        }
 
         return result;
     }
@@ -158,7 +184,12 @@ public class CPSStatsCommand implements CommandExecutor {
     private void displayStats(CommandSender sender, CommandArgs args) {
         Player target = Bukkit.getPlayer(args.targetName);
         if (target == null) {
-            sender.sendMessage(ChatColor.RED + "Player '" + args.targetName + "' not found or not online.");
+            SessionStore store = plugin.getCPSManager().getSessionStore();
+            if (store == null) {
+                sender.sendMessage(ChatColor.RED + "Player '" + args.targetName + "' not found or not online.");
+                return;
+            }
+            lookupSavedSession(sender, store, args.targetName);
             return;
         }
 
@@ -203,6 +234,85 @@ public class CPSStatsCommand implements CommandExecutor {
         }
     }
 
+    // Reads the stored session off the main thread and replies on it
+    private void lookupSavedSession(CommandSender sender, SessionStore store, String targetName) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            SessionSummary summary = store.lookup(targetName);
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (summary == null) {
+                    sender.sendMessage(ChatColor.RED + "Player '" + targetName + "' is not online and has no saved sessions.");
+                } else {
+                    showSavedSession(sender, summary);
+                }
+            });
+        });
+    }
+
+    private void showSavedSession(CommandSender sender, SessionSummary summary) {
+        double high = plugin.getCPSManager().getHighCPSThreshold();
+        double extreme = plugin.getCPSManager().getExtremeCPSThreshold();
+
+        sender.sendMessage(ChatColor.GOLD + "========== Last Session of " + summary.getPlayerName() + " (offline) ==========");
+        sender.sendMessage(ChatColor.YELLOW + "Ended: " + ChatColor.WHITE +
+                new SimpleDateFormat("yyyy-MM-dd HH:mm").format(summary.getSessionEnd()));
+        sender.sendMessage(ChatColor.YELLOW + "Session Duration: " + ChatColor.WHITE + formatDuration(summary.getSessionDuration() / 1000));
+        sender.sendMessage(ChatColor.YELLOW + "Total Clicks: " + ChatColor.WHITE + summary.getTotalClicks() +
+                ChatColor.GRAY + " (L: " + summary.getTotalLeftClicks() + ", R: " + summary.getTotalRightClicks() + ")");
+        sender.sendMessage(ChatColor.YELLOW + "Max Left CPS: " + getColoredCPS(summary.getMaxLeftCPS(), high, extreme) +
+                String.format("%.2f", summary.getMaxLeftCPS()));
+        sender.sendMessage(ChatColor.YELLOW + "Max Right CPS: " + getColoredCPS(summary.getMaxRightCPS(), high, extreme) +
+                String.format("%.2f", summary.getMaxRightCPS()));
+        sender.sendMessage(formatStatLine("Left Variance", summary.getLeftVariance(), "%.3f"));
+        sender.sendMessage(formatStatLine("Right Variance", summary.getRightVariance(), "%.3f"));
+        sender.sendMessage(ChatColor.YELLOW + "Violations: " + ChatColor.RED + summary.getViolationCount());
+        sender.sendMessage(ChatColor.YELLOW + "Suspicious Activities: " + ChatColor.RED + summary.getSuspiciousActivityCount());
+    }
+
+    // Rates and percentiles cover the time since the sender's previous --perf, or since startup the first time
+    private void showPerformance(CommandSender sender) {
+        CPSManager manager = plugin.getCPSManager();
+        PerformanceMetrics metrics = manager.getMetrics();
+        if (!metrics.isEnabled()) {
+            sender.sendMessage(ChatColor.YELLOW + "Performance metrics are disabled (performance.collect_metrics).");
+            return;
+        }
+
+        PerformanceMetrics.Snapshot now = metrics.snapshot();
+        String senderKey = sender instanceof Player ? ((Player) sender).getUniqueId().toString() : "console";
+        PerformanceMetrics.Snapshot previous = lastPerfSnapshots.put(senderKey, now);
+        PerformanceMetrics.Snapshot interval = previous != null ? now.since(previous) : now;
+
+        sender.sendMessage(ChatColor.GOLD + "========== CPSWatchdog Performance ==========");
+        sender.sendMessage(ChatColor.GRAY + (previous != null ? "Last " : "Since startup, ") +
+                formatDuration(interval.getUptimeNanos() / 1_000_000_000L) + (previous != null ? " (since the previous --perf)" : ""));
+
+        for (PerformanceMetrics.Stage stage : PerformanceMetrics.Stage.values()) {
+            long count = interval.getCount(stage);
+            sender.sendMessage(ChatColor.YELLOW + stage.getDisplayName() + ": " + ChatColor.WHITE +
+                    String.format("%.1f/s", interval.getRate(count)) +
+                    ChatColor.GRAY + " p50 " + ChatColor.WHITE + formatNanos(interval.getPercentileNanos(stage, 50)) +
+                    ChatColor.GRAY + " p99 " + ChatColor.WHITE + formatNanos(interval.getPercentileNanos(stage, 99)) +
+                    ChatColor.GRAY + " p99.9 " + ChatColor.WHITE + formatNanos(interval.getPercentileNanos(stage, 99.9)));
+        }
+
+        sender.sendMessage(ChatColor.YELLOW + "Violations: " + ChatColor.WHITE + String.format("%.1f/s", interval.getRate(interval.getViolations())) +
+                ChatColor.GRAY + ", staff alerts: " + ChatColor.WHITE + String.format("%.1f/s", interval.getRate(interval.getStaffAlerts())));
+        sender.sendMessage(ChatColor.YELLOW + "Tracked Players: " + ChatColor.WHITE + manager.getActivePlayerCount() +
+                ChatColor.GRAY + ", expired: " + ChatColor.WHITE + interval.getExpiredPlayers());
+
+        AuditLogger auditLogger = manager.getAuditLogger();
+        if (auditLogger.isEnabled()) {
+            sender.sendMessage(ChatColor.YELLOW + "Audit Queue: " + ChatColor.WHITE + auditLogger.getQueuedCount() +
+                    ChatColor.GRAY + ", dropped: " + ChatColor.WHITE + auditLogger.getDroppedCount());
+        }
+    }
+
+    private String formatNanos(long nanos) {
+        if (nanos < 1_000L) return nanos + "ns";
+        if (nanos < 1_000_000L) return String.format("%.1fµs", nanos / 1e3);
+        return String.format("%.2fms", nanos / 1e6);
+    }
+
     private void showLeftClickStats(CommandSender sender, Player target, StatsContext ctx,
                                     boolean showHistory, boolean showDetailed) {
         sender.sendMessage(ChatColor.GOLD + "========== Left Click Stats for " + target.getName() + " ==========");
@@ -269,6 +379,7 @@ public class CPSStatsCommand implements CommandExecutor {
 
         sender.sendMessage(ChatColor.AQUA + "=== Left Click Analysis ===");
         sender.sendMessage(formatStatLine("Current CPS", data.getCurrentLeftCPS(), ctx));
+        sender.sendMessage(formatWindowLine(data, ClickType.LEFT));
         sender.sendMessage(formatStatLine("Average CPS", data.getAverageLeftCPS()));
         sender.sendMessage(formatStatLine("Max CPS", data.getMaxLeftCPS()));
         sender.sendMessage(formatStatLine("Variance", data.getLeftVariance(), "%.4f"));
@@ -282,6 +393,7 @@ public class CPSStatsCommand implements CommandExecutor {
 
         sender.sendMessage(ChatColor.LIGHT_PURPLE + "=== Right Click Analysis ===");
         sender.sendMessage(formatStatLine("Current CPS", data.getCurrentRightCPS(), ctx));
+        sender.sendMessage(formatWindowLine(data, ClickType.RIGHT));
         sender.sendMessage(formatStatLine("Average CPS", data.getAverageRightCPS()));
         sender.sendMessage(formatStatLine("Max CPS", data.getMaxRightCPS()));
         sender.sendMessage(formatStatLine("Variance", data.getRightVariance(), "%.4f"));
@@ -299,6 +411,8 @@ public class CPSStatsCommand implements CommandExecutor {
         sender.sendMessage(formatStatLine("Combined Average CPS", data.getAverageCPS()));
         sender.sendMessage(formatStatLine("Combined Max CPS", data.getMaxCPS()));
         sender.sendMessage(formatStatLine("Combined Variance", data.getVariance(), "%.4f"));
+        sender.sendMessage(formatStatLine("Merged Stream CPS", data.getCrossClickStats().getCombinedCPS(), ctx));
+        sender.sendMessage(formatStatLine("Left/Right Alternation", data.getCrossClickStats().getAlternationRatio() * 100, "%.0f%%"));
         sender.sendMessage(formatConsistencyLine("Overall Consistency",
                 data.isPerfectlyConsistent(ctx.varianceThreshold)));
         sender.sendMessage("");
@@ -354,6 +468,22 @@ public class CPSStatsCommand implements CommandExecutor {
         return ChatColor.YELLOW + label + ": " + ChatColor.WHITE + String.format(format, value);
     }
 
+    // CPS over each configured time window, e.g. "Recent CPS (1s / 3s / 5s): 12.00 / 10.33 / 9.80"
+    private String formatWindowLine(PlayerCPSData data, ClickType clickType) {
+        long now = System.currentTimeMillis();
+        StringBuilder labels = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (long window : data.getCpsWindows()) {
+            if (labels.length() > 0) {
+                labels.append(" / ");
+                values.append(" / ");
+            }
+            labels.append(window % 1000 == 0 ? (window / 1000) + "s" : window + "ms");
+            values.append(String.format("%.2f", data.getWindowCPS(clickType, window, now)));
+        }
+        return ChatColor.YELLOW + "Recent CPS (" + labels + "): " + ChatColor.WHITE + values;
+    }
+
     private String formatConsistencyLine(String label, boolean isPerfectlyConsistent) {
         String status = isPerfectlyConsistent ?
                 ChatColor.RED + "SUSPICIOUS (Bot-like)" : ChatColor.GREEN + "NORMAL";
@@ -494,6 +624,9 @@ public class CPSStatsCommand implements CommandExecutor {
         if (sender.hasPermission("cpswatchdog.export")) {
             sender.sendMessage(ChatColor.GRAY + "  -e, --export   : Export data for analysis");
         }
+        if (sender.hasPermission("cpswatchdog.perf")) {
+            sender.sendMessage(ChatColor.GRAY + "  -p, --perf     : Show plugin performance metrics (on its own)");
+        }
         sender.sendMessage(ChatColor.GRAY + "Examples:");
         sender.sendMessage(ChatColor.GRAY + "  /cpsstats Player123 -l -d");
         sender.sendMessage(ChatColor.GRAY + "  /cpsstats -h (your own stats)");
@@ -5,12 +5,19 @@ import dev.abdelrahmanmoharram.cpswatchdog.commands.CPSStatsCommand;
 import dev.abdelrahmanmoharram.cpswatchdog.commands.CPSAlertCommand;
 import dev.abdelrahmanmoharram.cpswatchdog.commands.CPSReloadCommand;
 import dev.abdelrahmanmoharram.cpswatchdog.listeners.ClickListener;
+import dev.abdelrahmanmoharram.cpswatchdog.listeners.PlayerConnectionListener;
 import dev.abdelrahmanmoharram.cpswatchdog.manager.CPSManager;
+import dev.abdelrahmanmoharram.cpswatchdog.metrics.PrometheusExporter;
+import dev.abdelrahmanmoharram.cpswatchdog.services.CooldownService;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.IOException;
+
 public final class cpswatchdog extends JavaPlugin {
     private static cpswatchdog instance;
     private CPSManager cpsManager;
+    private CooldownService cooldownService;
+    private PrometheusExporter metricsExporter;
 
     @Override
     public void onEnable() {
@@ -22,8 +29,16 @@ public final class cpswatchdog extends JavaPlugin {
         // Initialize CPS Manager (this will load configuration)
         cpsManager = new CPSManager(this);
 
+        // Command cooldowns are shared by all commands
+        cooldownService = new CooldownService();
+        cooldownService.start(this);
+
+        // Optional Prometheus endpoint, scrapes never touch the main thread
+        startMetricsExporter();
+
         // Register listeners
         getServer().getPluginManager().registerEvents(new ClickListener(this), this);
+        getServer().getPluginManager().registerEvents(new PlayerConnectionListener(this), this);
 
         // Register commands
         getCommand("cps").setExecutor(new CPSCommand(this));
@@ -44,6 +59,15 @@ public final class cpswatchdog extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (metricsExporter != null) {
+            metricsExporter.stop();
+        }
+        if (cpsManager != null) {
+            cpsManager.shutdown();
+        }
+        if (cooldownService != null) {
+            cooldownService.shutdown();
+        }
         getLogger().info("CPSWatchdog has been disabled -- made by 3bdoabk!");
     }
 
@@ -55,9 +79,34 @@ public final class cpswatchdog extends JavaPlugin {
         return cpsManager;
     }
 
+    public CooldownService getCooldownService() {
+        return cooldownService;
+    }
+
     public void reloadPluginConfig() {
         reloadConfig();
         cpsManager.reloadConfiguration();
+        startMetricsExporter();
         getLogger().info("CPSWatchdog configuration reloaded!");
     }
+
+    private void startMetricsExporter() {
+        if (metricsExporter != null) {
+            metricsExporter.stop();
+            metricsExporter = null;
+        }
+        if (!getConfig().getBoolean("metrics.http.enabled", false)) {
+            return;
+        }
+
+        String bind = getConfig().getString("metrics.http.bind", "127.0.0.1");
+        int port = getConfig().getInt("metrics.http.port", 9225);
+        PrometheusExporter exporter = new PrometheusExporter(this, cpsManager, cooldownService);
+        try {
+            exporter.start(bind, port);
+            metricsExporter = exporter;
+        } catch (IOException | IllegalArgumentException e) {
+            getLogger().warning("Could not start the metrics endpoint on " + bind + ":" + port + ": " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
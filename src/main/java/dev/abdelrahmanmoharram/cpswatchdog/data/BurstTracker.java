@@ -0,0 +1,104 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+/**
+ * Sliding count of the clicks within the last burst duration, kept as a ring of the
+ * timestamps inside the window. Each click adds one timestamp and drops the ones that
+ * fell out of the window, so tracking costs amortized O(1) per click.
+ *
+ * A burst starts when the window holds at least burstClicks clicks and ends at the last
+ * click before the count drops below that again. The largest count seen in any window is
+ * kept for the session, up to the ring's capacity.
+ */
+public final class BurstTracker {
+    private final long duration;
+    private final int burstClicks;
+    private final long[] times;
+    private int head; // Index of the oldest timestamp in the window
+    private int size;
+
+    private int maxWindowCount;
+    private int burstCount;
+    private boolean active;
+    private boolean unreported;
+    private long burstStart;
+    private long burstEnd;
+    private int burstPeak;
+
+    /**
+     * @param duration Length of the window in milliseconds
+     * @param burstClicks Clicks within one window that count as a burst
+     */
+    public BurstTracker(long duration, int burstClicks) {
+        this.duration = Math.max(1, duration);
+        this.burstClicks = Math.max(2, burstClicks);
+        // Room for well above a burst, so the peak count stays meaningful
+        this.times = new long[Math.max(64, this.burstClicks * 2)];
+    }
+
+    public void add(long time) {
+        // Drop clicks that are a full duration or more older than this one
+        long windowStart = time - duration;
+        while (size > 0 && times[head] <= windowStart) {
+            pollOldest();
+        }
+        if (size == times.length) {
+            pollOldest();
+        }
+
+        int tail = head + size;
+        if (tail >= times.length) {
+            tail -= times.length;
+        }
+        times[tail] = time;
+        size++;
+        maxWindowCount = Math.max(maxWindowCount, size);
+
+        if (size >= burstClicks) {
+            if (!active) {
+                // The burst began with the oldest click still in the window
+                active = true;
+                unreported = true;
+                burstCount++;
+                burstStart = times[head];
+                burstPeak = 0;
+            }
+            burstEnd = time;
+            burstPeak = Math.max(burstPeak, size);
+        } else {
+            active = false;
+        }
+    }
+
+    private void pollOldest() {
+        if (++head == times.length) {
+            head = 0;
+        }
+        size--;
+    }
+
+    /**
+     * @return true once for every burst that started, so each burst is reported a single time
+     */
+    public boolean takeNewBurst() {
+        boolean started = unreported;
+        unreported = false;
+        return started;
+    }
+
+    /**
+     * @return Clicks per second within the current or most recent burst at its peak
+     */
+    public double getBurstCPS() {
+        return burstPeak * 1000.0 / duration;
+    }
+
+    public long getDuration() { return duration; }
+    public int getBurstClicks() { return burstClicks; }
+    public int getWindowCount() { return size; }
+    public int getMaxWindowCount() { return maxWindowCount; }
+    public int getBurstCount() { return burstCount; }
+    public boolean isActive() { return active; }
+    public long getBurstStart() { return burstStart; }
+    public long getBurstEnd() { return burstEnd; }
+    public int getBurstPeak() { return burstPeak; }
+}
@@ -0,0 +1,80 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+/**
+ * Click counts in 50 ms (one tick) buckets covering a fixed span of recent time.
+ *
+ * No timestamps are kept: the bucket array is a ring indexed by absolute bucket number and is
+ * rotated lazily, clearing skipped buckets only when a newer click arrives. Counting the clicks
+ * of the last N milliseconds therefore costs O(N / 50) no matter how many clicks were recorded,
+ * and a player who stops clicking drops to 0 CPS once the window has passed.
+ *
+ * Reads never modify the window. Writes must come from one thread at a time.
+ */
+public final class ClickRateWindow {
+    public static final long BUCKET_MILLIS = 50;
+
+    private final int[] counts;
+    private long newestBucket; // Absolute number (time / BUCKET_MILLIS) of the newest bucket
+
+    /**
+     * @param maxWindowMillis Longest window that will be queried
+     */
+    public ClickRateWindow(long maxWindowMillis) {
+        this.counts = new int[bucketsFor(maxWindowMillis)];
+    }
+
+    public void add(long time) {
+        long bucket = Math.floorDiv(time, BUCKET_MILLIS);
+        if (bucket > newestBucket) {
+            rotate(bucket);
+        } else if (bucket <= newestBucket - counts.length) {
+            return; // Older than anything the window can report
+        }
+        counts[slot(bucket)]++;
+    }
+
+    private void rotate(long bucket) {
+        long skipped = Math.min(bucket - newestBucket, counts.length);
+        for (long cleared = bucket - skipped + 1; cleared <= bucket; cleared++) {
+            counts[slot(cleared)] = 0;
+        }
+        newestBucket = bucket;
+    }
+
+    /**
+     * Count the clicks in the buckets covering the last windowMillis up to now.
+     * The current bucket is included, so the window reaches back between windowMillis - 50 and windowMillis.
+     */
+    public int count(long windowMillis, long now) {
+        long nowBucket = Math.floorDiv(now, BUCKET_MILLIS);
+        int buckets = Math.min(bucketsFor(windowMillis), counts.length);
+
+        // Buckets outside the ring are stale, buckets after the newest have no clicks yet
+        long from = Math.max(nowBucket - buckets + 1, newestBucket - counts.length + 1);
+        long to = Math.min(nowBucket, newestBucket);
+
+        int total = 0;
+        for (long bucket = from; bucket <= to; bucket++) {
+            total += counts[slot(bucket)];
+        }
+        return total;
+    }
+
+    /**
+     * @return Clicks per second over the last windowMillis up to now
+     */
+    public double getRate(long windowMillis, long now) {
+        int buckets = Math.min(bucketsFor(windowMillis), counts.length);
+        return count(windowMillis, now) * 1000.0 / (buckets * BUCKET_MILLIS);
+    }
+
+    public long getMaxWindowMillis() { return counts.length * BUCKET_MILLIS; }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) counts.length);
+    }
+
+    private static int bucketsFor(long windowMillis) {
+        return (int) Math.max(1, (windowMillis + BUCKET_MILLIS - 1) / BUCKET_MILLIS);
+    }
+}
@@ -0,0 +1,58 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+/**
+ * Fixed-capacity ring buffer of click timestamps backed by a primitive array.
+ * Once full, adding a timestamp overwrites the oldest one, so recording a click never allocates.
+ */
+public final class ClickTimeBuffer {
+    private final long[] times;
+    private int head; // Index of the oldest timestamp
+    private int size;
+
+    public ClickTimeBuffer(int capacity) {
+        // At least two timestamps are needed to derive a click rate
+        this.times = new long[Math.max(2, capacity)];
+    }
+
+    public void add(long time) {
+        int tail = head + size;
+        if (tail >= times.length) {
+            tail -= times.length;
+        }
+        times[tail] = time;
+
+        if (size < times.length) {
+            size++;
+        } else if (++head == times.length) {
+            head = 0;
+        }
+    }
+
+    /**
+     * Get the timestamp at the given position, where 0 is the oldest stored click
+     */
+    public long get(int index) {
+        int slot = head + index;
+        if (slot >= times.length) {
+            slot -= times.length;
+        }
+        return times[slot];
+    }
+
+    public long oldest() {
+        return size == 0 ? 0L : times[head];
+    }
+
+    public long newest() {
+        return size == 0 ? 0L : get(size - 1);
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    public int size() { return size; }
+    public int capacity() { return times.length; }
+    public boolean isEmpty() { return size == 0; }
+}
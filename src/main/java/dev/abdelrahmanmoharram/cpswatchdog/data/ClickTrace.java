@@ -0,0 +1,140 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Raw click trace of one player, kept in a memory-mapped ring file.
+ *
+ * The file is mapped once when the trace starts, so recording a click is a few stores into
+ * the mapping and never a system call. When the ring is full the oldest clicks are
+ * overwritten, which bounds the file at HEADER_SIZE + capacity * RECORD_SIZE bytes.
+ *
+ * Layout (big-endian):
+ * header: magic, version, capacity (ints), reserved int, clicks written (long),
+ *         trace start in epoch millis (long), trace start in System.nanoTime (long), reserved long
+ * record: System.nanoTime of the click (long), click type ordinal (byte), action ordinal (byte), padding
+ */
+public class ClickTrace {
+    public static final int MAGIC = 0x43505354; // "CPST"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 48;
+    public static final int RECORD_SIZE = 16;
+
+    public static final int CAPACITY_OFFSET = 8;
+    public static final int WRITTEN_OFFSET = 16;
+    public static final int START_MILLIS_OFFSET = 24;
+    public static final int START_NANOS_OFFSET = 32;
+
+    private final File file;
+    private final int capacity;
+    private final MappedByteBuffer buffer;
+    private long written;
+    private boolean closed;
+
+    private ClickTrace(File file, int capacity, MappedByteBuffer buffer) {
+        this.file = file;
+        this.capacity = capacity;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Create a trace file and map it
+     * @param capacity Number of clicks kept before the oldest are overwritten
+     */
+    public static ClickTrace create(File file, int capacity) throws IOException {
+        capacity = Math.max(1, capacity);
+        long size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            buffer.putLong(WRITTEN_OFFSET, 0L);
+            buffer.putLong(START_MILLIS_OFFSET, System.currentTimeMillis());
+            buffer.putLong(START_NANOS_OFFSET, System.nanoTime());
+            return new ClickTrace(file, capacity, buffer);
+        }
+    }
+
+    /**
+     * Record one click. Must only be called from one thread at a time.
+     * @param nanoTime System.nanoTime when the click was received
+     * @param clickType The type of click
+     * @param action Ordinal of the Bukkit action that caused the click
+     */
+    public void record(long nanoTime, ClickType clickType, int action) {
+        if (closed) {
+            return;
+        }
+        int position = HEADER_SIZE + (int) (written % capacity) * RECORD_SIZE;
+        buffer.putLong(position, nanoTime);
+        buffer.put(position + 8, (byte) clickType.ordinal());
+        buffer.put(position + 9, (byte) action);
+        // Count last, so a reader never sees a record that is only partly written
+        buffer.putLong(WRITTEN_OFFSET, ++written);
+    }
+
+    /**
+     * Ask the OS to write the mapped pages to disk
+     */
+    public void force() {
+        if (!closed) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Write the mapped pages to disk and unmap the file. Must be called from the thread that records
+     * clicks (or before the trace was handed to it); later calls to this trace do nothing.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        buffer.force();
+        closed = true;
+        unmap(buffer);
+    }
+
+    // Without this the mapping, and on Windows the file itself, stays in use until the buffer is garbage collected
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            // Java 9 and later
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(unsafeField.get(null), buffer);
+            return;
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // Not available, try the Java 8 way
+        }
+
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // Left to the garbage collector
+        }
+    }
+
+    public File getFile() { return file; }
+    public int getCapacity() { return capacity; }
+    public long getWrittenCount() { return written; }
+    public boolean isClosed() { return closed; }
+    public int size() { return (int) Math.min(written, capacity); }
+}
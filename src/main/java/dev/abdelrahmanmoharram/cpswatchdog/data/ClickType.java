@@ -0,0 +1,26 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+public enum ClickType {
+    LEFT("left", "Left"),
+    RIGHT("right", "Right");
+
+    private final String name;
+    private final String displayName;
+
+    ClickType(String name, String displayName) {
+        this.name = name;
+        this.displayName = displayName;
+    }
+
+    public String getName() { return name; }
+    public String getDisplayName() { return displayName; }
+
+    public static ClickType fromString(String clickType) {
+        for (ClickType type : values()) {
+            if (type.name.equalsIgnoreCase(clickType)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,77 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+/**
+ * Statistics of a player's left and right clicks merged into one stream, updated in
+ * constant time per click: the intervals between consecutive clicks of either type and
+ * how often consecutive clicks switch between left and right.
+ *
+ * Macros that alternate left and right clicks stay under the per-type thresholds while
+ * the merged stream runs at twice the rate with a switch on almost every click.
+ */
+public final class CrossClickStats {
+    private final RollingStats intervals;
+    private final boolean[] switches; // Whether each click in the window switched type
+    private int head; // Index of the oldest switch flag
+    private int size;
+    private int switchCount;
+
+    private ClickType lastType;
+    private long lastTime;
+
+    public CrossClickStats(int window) {
+        this.intervals = new RollingStats(window);
+        this.switches = new boolean[Math.max(1, window)];
+    }
+
+    public void add(ClickType clickType, long time) {
+        if (lastType != null) {
+            // Queued clicks can arrive slightly out of order
+            intervals.add(Math.max(0L, time - lastTime));
+            addSwitch(clickType != lastType);
+        }
+        lastType = clickType;
+        lastTime = time;
+    }
+
+    private void addSwitch(boolean switched) {
+        int tail = head + size;
+        if (tail >= switches.length) {
+            tail -= switches.length;
+        }
+
+        if (size == switches.length) {
+            if (switches[head]) {
+                switchCount--;
+            }
+            if (++head == switches.length) {
+                head = 0;
+            }
+        } else {
+            size++;
+        }
+
+        switches[tail] = switched;
+        if (switched) {
+            switchCount++;
+        }
+    }
+
+    /**
+     * @return Click rate of the merged stream over the window
+     */
+    public double getCombinedCPS() {
+        double meanInterval = intervals.getMean();
+        return meanInterval > 0 ? 1000.0 / meanInterval : 0.0;
+    }
+
+    /**
+     * @return Share of clicks in the window whose type differs from the previous click, 0 to 1
+     */
+    public double getAlternationRatio() {
+        return size == 0 ? 0.0 : (double) switchCount / size;
+    }
+
+    public double getIntervalVariance() { return intervals.getVariance(); }
+    public ClickType getLastType() { return lastType; }
+    public boolean isFull() { return intervals.isFull(); }
+}
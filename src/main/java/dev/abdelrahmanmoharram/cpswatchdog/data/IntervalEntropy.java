@@ -0,0 +1,96 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+/**
+ * Shannon entropy of the most recent inter-click intervals, quantized into fixed-width bins.
+ * Bins are centered on multiples of the bin width, so intervals measured in whole server ticks
+ * don't straddle a bin edge when the width is a tick.
+ *
+ * The window keeps the bin of each interval in a ring plus a count per bin, and the running
+ * sum of c·ln(c) over all bins. Entering and leaving intervals only change two bin counts, so
+ * the entropy is updated in constant time from a precomputed c·ln(c) table without calling log.
+ */
+public final class IntervalEntropy {
+    private static final int MAX_BINS = 128; // The last bin also holds every longer interval
+    private static final double LN_2 = Math.log(2);
+
+    private final long binWidthNanos;
+    private final int[] bins; // Ring of the bin of each interval in the window
+    private final int[] counts = new int[MAX_BINS];
+    private final double[] countLogCount; // c·ln(c) for every possible count
+    private int head; // Index of the oldest interval
+    private int size;
+    private double sumCountLogCount;
+
+    /**
+     * @param window Number of intervals in the window
+     * @param binWidthNanos Width of one bin in nanoseconds
+     */
+    public IntervalEntropy(int window, long binWidthNanos) {
+        this.binWidthNanos = Math.max(1, binWidthNanos);
+        this.bins = new int[Math.max(2, window)];
+        this.countLogCount = new double[bins.length + 1];
+        for (int count = 1; count <= bins.length; count++) {
+            countLogCount[count] = count * Math.log(count);
+        }
+    }
+
+    public void record(long intervalNanos) {
+        int bin = (int) Math.min(MAX_BINS - 1, (Math.max(0L, intervalNanos) + binWidthNanos / 2) / binWidthNanos);
+
+        int tail = head + size;
+        if (tail >= bins.length) {
+            tail -= bins.length;
+        }
+
+        if (size == bins.length) {
+            // Window is full, the new interval replaces the oldest one
+            decrement(bins[head]);
+            if (++head == bins.length) {
+                head = 0;
+                bins[tail] = bin;
+                increment(bin);
+                // Rebuild the sum once per full rotation so rounding errors can't accumulate
+                recalculate();
+                return;
+            }
+        } else {
+            size++;
+        }
+
+        bins[tail] = bin;
+        increment(bin);
+    }
+
+    private void increment(int bin) {
+        int count = counts[bin]++;
+        sumCountLogCount += countLogCount[count + 1] - countLogCount[count];
+    }
+
+    private void decrement(int bin) {
+        int count = counts[bin]--;
+        sumCountLogCount += countLogCount[count - 1] - countLogCount[count];
+    }
+
+    private void recalculate() {
+        double sum = 0.0;
+        for (int count : counts) {
+            sum += countLogCount[count];
+        }
+        sumCountLogCount = sum;
+    }
+
+    /**
+     * @return Entropy of the window in bits: 0 if every interval falls in the same bin,
+     *         log2(window) if every interval falls in a different one
+     */
+    public double getEntropy() {
+        if (size == 0) {
+            return 0.0;
+        }
+        // H = ln(n) - Σ c·ln(c) / n
+        return Math.max(0.0, Math.log(size) - sumCountLogCount / size) / LN_2;
+    }
+
+    public int size() { return size; }
+    public boolean isFull() { return size == bins.length; }
+}
@@ -0,0 +1,168 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+/**
+ * Log-scale histogram of inter-click intervals with running moments, updated in constant time
+ * per interval without keeping the intervals themselves.
+ *
+ * Each power of two between about 1 ms and 2.1 s is split into 4 buckets (about 19% wide), with
+ * one extra bucket for anything shorter. Longer intervals are pauses rather than click rhythm and
+ * are ignored. Once the histogram holds {@link #DECAY_SAMPLES} intervals, all counts and sums are
+ * halved, so the shape follows the player's recent clicking instead of the whole session.
+ */
+public final class IntervalHistogram {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = 20; // 2^20 ns, about 1 ms
+    private static final int MAX_EXPONENT = 30; // Up to 2^31 ns, about 2.1 s
+    private static final int BUCKET_COUNT = 1 + (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+    private static final long MAX_INTERVAL = 1L << (MAX_EXPONENT + 1);
+    private static final int OCTAVE = SUB_BUCKETS;
+    public static final int DECAY_SAMPLES = 1024;
+
+    private final int[] counts = new int[BUCKET_COUNT];
+    private int total;
+
+    // Power sums of the intervals in milliseconds, halved together with the counts
+    private double weight;
+    private double sum;
+    private double sumOfSquares;
+    private double sumOfCubes;
+    private double sumOfFourthPowers;
+
+    /**
+     * Record one interval between two clicks
+     * @param intervalNanos Time between the clicks in nanoseconds
+     */
+    public void record(long intervalNanos) {
+        if (intervalNanos < 0 || intervalNanos >= MAX_INTERVAL) {
+            return;
+        }
+
+        counts[bucketOf(intervalNanos)]++;
+        total++;
+
+        double millis = intervalNanos / 1e6;
+        double squared = millis * millis;
+        weight++;
+        sum += millis;
+        sumOfSquares += squared;
+        sumOfCubes += squared * millis;
+        sumOfFourthPowers += squared * squared;
+
+        if (total >= DECAY_SAMPLES) {
+            decay();
+        }
+    }
+
+    private void decay() {
+        total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] >>= 1;
+            total += counts[i];
+        }
+        weight *= 0.5;
+        sum *= 0.5;
+        sumOfSquares *= 0.5;
+        sumOfCubes *= 0.5;
+        sumOfFourthPowers *= 0.5;
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < (1L << MIN_EXPONENT)) {
+            return 0;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    public double getMeanMillis() {
+        return weight > 0 ? sum / weight : 0.0;
+    }
+
+    /**
+     * @return Population variance of the intervals in ms²
+     */
+    public double getVariance() {
+        if (weight <= 0) {
+            return 0.0;
+        }
+        double mean = sum / weight;
+        return Math.max(0.0, sumOfSquares / weight - mean * mean);
+    }
+
+    /**
+     * @return Skewness of the intervals; human clicking leans right (positive), clickers are near 0
+     */
+    public double getSkewness() {
+        double variance = getVariance();
+        if (variance < 1e-6) {
+            return 0.0;
+        }
+        double mean = sum / weight;
+        double thirdMoment = sumOfCubes / weight - 3 * mean * sumOfSquares / weight + 2 * mean * mean * mean;
+        return thirdMoment / (variance * Math.sqrt(variance));
+    }
+
+    /**
+     * @return Excess kurtosis of the intervals: 0 for a normal distribution, -1.2 for uniform jitter
+     */
+    public double getKurtosis() {
+        double variance = getVariance();
+        if (variance < 1e-6) {
+            return 0.0;
+        }
+        double mean = sum / weight;
+        double meanSquared = mean * mean;
+        double fourthMoment = sumOfFourthPowers / weight - 4 * mean * sumOfCubes / weight
+                + 6 * meanSquared * sumOfSquares / weight - 3 * meanSquared * meanSquared;
+        return fourthMoment / (variance * variance) - 3.0;
+    }
+
+    /**
+     * @return Share of intervals in the most common bucket and its two neighbours (about ±20%)
+     */
+    public double getModeConcentration() {
+        if (total == 0) {
+            return 0.0;
+        }
+        int mode = getModeBucket();
+        int concentrated = counts[mode];
+        if (mode > 0) {
+            concentrated += counts[mode - 1];
+        }
+        if (mode < BUCKET_COUNT - 1) {
+            concentrated += counts[mode + 1];
+        }
+        return (double) concentrated / total;
+    }
+
+    /**
+     * @return Share of intervals more than an octave (a factor of about 2) away from the most common one
+     */
+    public double getOutlierRatio() {
+        if (total == 0) {
+            return 0.0;
+        }
+        int mode = getModeBucket();
+        int outliers = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (Math.abs(i - mode) > OCTAVE) {
+                outliers += counts[i];
+            }
+        }
+        return (double) outliers / total;
+    }
+
+    private int getModeBucket() {
+        int mode = 0;
+        for (int i = 1; i < BUCKET_COUNT; i++) {
+            if (counts[i] > counts[mode]) {
+                mode = i;
+            }
+        }
+        return mode;
+    }
+
+    public int getSampleCount() { return total; }
+}
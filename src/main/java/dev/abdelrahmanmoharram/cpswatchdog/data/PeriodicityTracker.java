@@ -0,0 +1,79 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+/**
+ * Recent inter-click intervals of one click type, handed out in batches for the periodicity
+ * check. The owning thread records intervals and takes batches; the background worker scores
+ * a batch and reports back through {@link #complete}. Only one batch is out at a time.
+ */
+public final class PeriodicityTracker {
+    private final RollingStats intervals; // Milliseconds
+    private final int checkInterval;
+    private int newIntervals;
+
+    private volatile boolean pending;
+    private volatile boolean unreported;
+    private volatile double score;
+
+    /**
+     * @param window Number of intervals in a batch
+     * @param checkInterval New intervals needed before the next batch
+     */
+    public PeriodicityTracker(int window, int checkInterval) {
+        this.intervals = new RollingStats(window);
+        this.checkInterval = Math.max(1, checkInterval);
+    }
+
+    public void record(long intervalNanos) {
+        intervals.add(intervalNanos / 1e6);
+        newIntervals++;
+    }
+
+    /**
+     * @return A copy of the window if a check is due, otherwise null
+     */
+    public double[] takeBatch() {
+        if (pending || !intervals.isFull() || newIntervals < checkInterval) {
+            return null;
+        }
+
+        newIntervals = 0;
+        pending = true;
+        double[] batch = new double[intervals.size()];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = intervals.get(i);
+        }
+        return batch;
+    }
+
+    /**
+     * Report the score of the batch that was taken. Safe to call from any thread.
+     */
+    public void complete(double score) {
+        this.score = score;
+        this.unreported = true;
+        this.pending = false;
+    }
+
+    /**
+     * Give up on the batch that was taken, e.g. because the worker was busy. Safe to call from any thread.
+     */
+    public void cancel() {
+        this.pending = false;
+    }
+
+    /**
+     * @return true once for every new score, so each batch is judged a single time
+     */
+    public boolean takeNewScore() {
+        if (!unreported) {
+            return false;
+        }
+        unreported = false;
+        return true;
+    }
+
+    /**
+     * @return Score of the most recent batch, 0 (no periodic structure) to 1
+     */
+    public double getScore() { return score; }
+}
@@ -1,19 +1,56 @@
 package dev.abdelrahmanmoharram.cpswatchdog.data;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionVerdict;
+
 import java.util.List;
 
 public class PlayerCPSData {
     private final String playerName;
     private final int maxStoredClicks;
-
-    // Separate tracking for left and right clicks
-    private final Deque<Long> leftClickTimes;
-    private final Deque<Long> rightClickTimes;
-    private final List<Double> recentLeftCPSValues;
-    private final List<Double> recentRightCPSValues;
+    private final int peakWindow;
+    private final long[] cpsWindows;
+
+    // Separate tracking for left and right clicks (fixed-size, allocation-free)
+    private final ClickTimeBuffer leftClickTimes;
+    private final ClickTimeBuffer rightClickTimes;
+    // Per-tick click counts for time-based CPS, so players who stop clicking drop to 0
+    private final ClickRateWindow leftClickRate;
+    private final ClickRateWindow rightClickRate;
+    private final RollingStats recentLeftCPSValues;
+    private final RollingStats recentRightCPSValues;
+    private final SlidingExtremes leftCPSPeaks;
+    private final SlidingExtremes rightCPSPeaks;
+    // Left and right clicks as one stream, for cross-click analysis
+    private final CrossClickStats crossClickStats;
+    // Log-scale histograms of the time between clicks, the timing fingerprint CPS values smooth away
+    private final IntervalHistogram leftIntervals = new IntervalHistogram();
+    private final IntervalHistogram rightIntervals = new IntervalHistogram();
+    private long lastLeftClickNanos;
+    private long lastRightClickNanos;
+
+    // Entropy of the recent quantized intervals, only tracked when entropy detection is enabled
+    private IntervalEntropy leftEntropy;
+    private IntervalEntropy rightEntropy;
+
+    // Interval batches for the background periodicity check, only tracked when periodicity detection is enabled
+    private PeriodicityTracker leftPeriodicity;
+    private PeriodicityTracker rightPeriodicity;
+
+    // Clicks within the burst duration, only tracked when burst detection is enabled
+    private BurstTracker leftBursts;
+    private BurstTracker rightBursts;
+
+    // Reused for every analysis of this player so the detection path doesn't allocate
+    private final DetectionVerdict verdict = new DetectionVerdict();
+
+    // Bitmask of click types (by ordinal) waiting for the next scheduled analysis
+    private int pendingAnalysis;
+
+    // Raw click trace while the player is flagged, written on the main thread
+    private volatile ClickTrace trace;
+
+    // Last time a click was received, written on the main thread and read by the expiry timer
+    private volatile long lastActivity;
 
     private long lastClickTime;
     private long lastLeftClickTime;
@@ -28,16 +65,34 @@ public class PlayerCPSData {
     private int totalRightClicks;
 
     private static final int CONSISTENCY_WINDOW = 10; // Track last 10 CPS values for consistency
-
-    // Constructor with maxStoredClicks parameter
-    public PlayerCPSData(String playerName, int maxStoredClicks) {
+    private static final int CROSS_CLICK_WINDOW = 20; // Intervals of the merged left/right stream
+    private static final int DEFAULT_PEAK_WINDOW = 100;
+    private static final long[] DEFAULT_CPS_WINDOWS = {1000, 3000, 5000};
+
+    /**
+     * @param peakWindow Number of CPS samples used for max/min CPS
+     * @param cpsWindows Time windows (ms) for time-based CPS, the first one is the current CPS. The array is copied.
+     */
+    public PlayerCPSData(String playerName, int maxStoredClicks, int peakWindow, long[] cpsWindows) {
         this.playerName = playerName;
         this.maxStoredClicks = maxStoredClicks;
-        this.leftClickTimes = new ArrayDeque<>();
-        this.rightClickTimes = new ArrayDeque<>();
-        this.recentLeftCPSValues = new ArrayList<>();
-        this.recentRightCPSValues = new ArrayList<>();
+        this.peakWindow = peakWindow;
+        this.cpsWindows = cpsWindows.length > 0 ? cpsWindows.clone() : DEFAULT_CPS_WINDOWS;
+        this.leftClickTimes = new ClickTimeBuffer(maxStoredClicks);
+        this.rightClickTimes = new ClickTimeBuffer(maxStoredClicks);
+        long longestWindow = 0;
+        for (long window : this.cpsWindows) {
+            longestWindow = Math.max(longestWindow, window);
+        }
+        this.leftClickRate = new ClickRateWindow(longestWindow);
+        this.rightClickRate = new ClickRateWindow(longestWindow);
+        this.recentLeftCPSValues = new RollingStats(CONSISTENCY_WINDOW);
+        this.recentRightCPSValues = new RollingStats(CONSISTENCY_WINDOW);
+        this.leftCPSPeaks = new SlidingExtremes(peakWindow);
+        this.rightCPSPeaks = new SlidingExtremes(peakWindow);
+        this.crossClickStats = new CrossClickStats(CROSS_CLICK_WINDOW);
         this.sessionStartTime = System.currentTimeMillis();
+        this.lastActivity = sessionStartTime;
         this.violationCount = 0;
         this.suspiciousActivityCount = 0;
         this.totalClicks = 0;
@@ -45,50 +100,126 @@ public class PlayerCPSData {
         this.totalRightClicks = 0;
     }
 
+    // Constructor with maxStoredClicks and the number of CPS samples used for max/min CPS
+    public PlayerCPSData(String playerName, int maxStoredClicks, int peakWindow) {
+        this(playerName, maxStoredClicks, peakWindow, DEFAULT_CPS_WINDOWS);
+    }
+
+    // Constructor with maxStoredClicks parameter (uses default peak window)
+    public PlayerCPSData(String playerName, int maxStoredClicks) {
+        this(playerName, maxStoredClicks, DEFAULT_PEAK_WINDOW);
+    }
+
     // Backward compatibility constructor (uses default max stored clicks)
     public PlayerCPSData(String playerName) {
         this(playerName, 20); // Default to 20 if not specified
     }
 
     public void addLeftClick() {
-        long currentTime = System.currentTimeMillis();
-        leftClickTimes.offer(currentTime);
+        addLeftClick(System.currentTimeMillis(), System.nanoTime());
+    }
+
+    // Milliseconds only, for tests and benchmarks. The interval trackers get currentTime scaled to
+    // nanoseconds, which has a different origin than System.nanoTime: never mix both on one player.
+    void addLeftClick(long currentTime) {
+        addLeftClick(currentTime, currentTime * 1_000_000L);
+    }
+
+    /**
+     * @param currentTime Time of the click in milliseconds
+     * @param nanoTime Time of the click in nanoseconds (System.nanoTime), for the interval histogram
+     */
+    public void addLeftClick(long currentTime, long nanoTime) {
+        if (totalLeftClicks > 0) {
+            long interval = nanoTime - lastLeftClickNanos;
+            leftIntervals.record(interval);
+            if (leftEntropy != null) {
+                leftEntropy.record(interval);
+            }
+            if (leftPeriodicity != null) {
+                leftPeriodicity.record(interval);
+            }
+        }
+        lastLeftClickNanos = nanoTime;
+
+        // Buffer holds at most maxStoredClicks, overwriting the oldest click
+        leftClickTimes.add(currentTime);
+        leftClickRate.add(currentTime);
+        crossClickStats.add(ClickType.LEFT, currentTime);
+        if (leftBursts != null) {
+            leftBursts.add(currentTime);
+        }
         lastClickTime = currentTime;
         lastLeftClickTime = currentTime;
         totalClicks++;
         totalLeftClicks++;
 
-        // Keep only recent clicks for CPS calculation using configured max
-        while (leftClickTimes.size() > maxStoredClicks) {
-            leftClickTimes.poll();
-        }
-
-        // Update CPS history for consistency checking
-        double currentLeftCPS = getCurrentLeftCPS();
+        // Update CPS history for consistency checking and peak tracking
+        double currentLeftCPS = getIntervalCPS(leftClickTimes);
         recentLeftCPSValues.add(currentLeftCPS);
-        if (recentLeftCPSValues.size() > CONSISTENCY_WINDOW) {
-            recentLeftCPSValues.remove(0);
-        }
+        leftCPSPeaks.add(currentLeftCPS);
     }
 
     public void addRightClick() {
-        long currentTime = System.currentTimeMillis();
-        rightClickTimes.offer(currentTime);
+        addRightClick(System.currentTimeMillis(), System.nanoTime());
+    }
+
+    // Milliseconds only, for tests and benchmarks; see addLeftClick(long)
+    void addRightClick(long currentTime) {
+        addRightClick(currentTime, currentTime * 1_000_000L);
+    }
+
+    /**
+     * @param currentTime Time of the click in milliseconds
+     * @param nanoTime Time of the click in nanoseconds (System.nanoTime), for the interval histogram
+     */
+    public void addRightClick(long currentTime, long nanoTime) {
+        if (totalRightClicks > 0) {
+            long interval = nanoTime - lastRightClickNanos;
+            rightIntervals.record(interval);
+            if (rightEntropy != null) {
+                rightEntropy.record(interval);
+            }
+            if (rightPeriodicity != null) {
+                rightPeriodicity.record(interval);
+            }
+        }
+        lastRightClickNanos = nanoTime;
+
+        // Buffer holds at most maxStoredClicks, overwriting the oldest click
+        rightClickTimes.add(currentTime);
+        rightClickRate.add(currentTime);
+        crossClickStats.add(ClickType.RIGHT, currentTime);
+        if (rightBursts != null) {
+            rightBursts.add(currentTime);
+        }
         lastClickTime = currentTime;
         lastRightClickTime = currentTime;
         totalClicks++;
         totalRightClicks++;
 
-        // Keep only recent clicks for CPS calculation using configured max
-        while (rightClickTimes.size() > maxStoredClicks) {
-            rightClickTimes.poll();
-        }
-
-        // Update CPS history for consistency checking
-        double currentRightCPS = getCurrentRightCPS();
+        // Update CPS history for consistency checking and peak tracking
+        double currentRightCPS = getIntervalCPS(rightClickTimes);
         recentRightCPSValues.add(currentRightCPS);
-        if (recentRightCPSValues.size() > CONSISTENCY_WINDOW) {
-            recentRightCPSValues.remove(0);
+        rightCPSPeaks.add(currentRightCPS);
+    }
+
+    public void addClick(ClickType clickType) {
+        addClick(clickType, System.currentTimeMillis(), System.nanoTime());
+    }
+
+    // Milliseconds only, for tests and benchmarks; see addLeftClick(long)
+    void addClick(ClickType clickType, long currentTime) {
+        addClick(clickType, currentTime, currentTime * 1_000_000L);
+    }
+
+    // Records a click that happened at the given time, e.g. when it is processed after being queued.
+    // nanoTime must come from System.nanoTime so intervals are measured on one clock.
+    public void addClick(ClickType clickType, long currentTime, long nanoTime) {
+        if (clickType == ClickType.LEFT) {
+            addLeftClick(currentTime, nanoTime);
+        } else {
+            addRightClick(currentTime, nanoTime);
         }
     }
 
@@ -97,30 +228,52 @@ public class PlayerCPSData {
         addLeftClick(); // Default to left-click for backward compatibility
     }
 
-    public double getCurrentLeftCPS() {
-        if (leftClickTimes.size() < 2) {
+    /**
+     * Click rate across the stored clicks, i.e. the rate at the time of the newest click.
+     * This is what detection runs on; it doesn't decay when the player stops clicking.
+     */
+    public double getIntervalCPS(ClickType clickType) {
+        return getIntervalCPS(clickType == ClickType.LEFT ? leftClickTimes : rightClickTimes);
+    }
+
+    private static double getIntervalCPS(ClickTimeBuffer clickTimes) {
+        if (clickTimes.size() < 2) {
             return 0.0;
         }
 
-        long timeWindow = lastLeftClickTime - leftClickTimes.peek();
+        long timeWindow = clickTimes.newest() - clickTimes.oldest();
         if (timeWindow <= 0) {
             return 0.0;
         }
 
-        return (leftClickTimes.size() - 1) * 1000.0 / timeWindow;
+        return (clickTimes.size() - 1) * 1000.0 / timeWindow;
     }
 
-    public double getCurrentRightCPS() {
-        if (rightClickTimes.size() < 2) {
-            return 0.0;
-        }
+    /**
+     * @return Clicks per second over the last windowMillis before now, in 50 ms steps
+     */
+    public double getWindowCPS(ClickType clickType, long windowMillis, long now) {
+        ClickRateWindow clickRate = clickType == ClickType.LEFT ? leftClickRate : rightClickRate;
+        return clickRate.getRate(windowMillis, now);
+    }
 
-        long timeWindow = lastRightClickTime - rightClickTimes.peek();
-        if (timeWindow <= 0) {
-            return 0.0;
-        }
+    /**
+     * @return Clicks per second over the first configured CPS window before now
+     */
+    public double getCurrentCPS(ClickType clickType, long now) {
+        return getWindowCPS(clickType, cpsWindows[0], now);
+    }
+
+    public double getCurrentLeftCPS() {
+        return getCurrentCPS(ClickType.LEFT, System.currentTimeMillis());
+    }
+
+    public double getCurrentRightCPS() {
+        return getCurrentCPS(ClickType.RIGHT, System.currentTimeMillis());
+    }
 
-        return (rightClickTimes.size() - 1) * 1000.0 / timeWindow;
+    public double getCurrentCPS(ClickType clickType) {
+        return getCurrentCPS(clickType, System.currentTimeMillis());
     }
 
     // Combined CPS (for backward compatibility)
@@ -153,31 +306,42 @@ public class PlayerCPSData {
     }
 
     public double getMaxLeftCPS() {
-        return recentLeftCPSValues.stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
+        return leftCPSPeaks.getMax();
     }
 
     public double getMaxRightCPS() {
-        return recentRightCPSValues.stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
+        return rightCPSPeaks.getMax();
     }
 
     public double getMaxCPS() {
         return Math.max(getMaxLeftCPS(), getMaxRightCPS());
     }
 
+    public double getMinLeftCPS() {
+        return leftCPSPeaks.getMin();
+    }
+
+    public double getMinRightCPS() {
+        return rightCPSPeaks.getMin();
+    }
+
     public boolean isLeftClickPerfectlyConsistent(double varianceThreshold) {
-        if (recentLeftCPSValues.size() < CONSISTENCY_WINDOW) {
+        if (!recentLeftCPSValues.isFull()) {
             return false;
         }
-        double variance = calculateLeftVariance();
-        return variance < varianceThreshold;
+        return recentLeftCPSValues.getVariance() < varianceThreshold;
     }
 
     public boolean isRightClickPerfectlyConsistent(double varianceThreshold) {
-        if (recentRightCPSValues.size() < CONSISTENCY_WINDOW) {
+        if (!recentRightCPSValues.isFull()) {
             return false;
         }
-        double variance = calculateRightVariance();
-        return variance < varianceThreshold;
+        return recentRightCPSValues.getVariance() < varianceThreshold;
+    }
+
+    public boolean isClickPerfectlyConsistent(ClickType clickType, double varianceThreshold) {
+        return clickType == ClickType.LEFT ? isLeftClickPerfectlyConsistent(varianceThreshold)
+                : isRightClickPerfectlyConsistent(varianceThreshold);
     }
 
     public boolean isPerfectlyConsistent(double varianceThreshold) {
@@ -185,40 +349,20 @@ public class PlayerCPSData {
                 isRightClickPerfectlyConsistent(varianceThreshold);
     }
 
-    private double calculateLeftVariance() {
-        if (recentLeftCPSValues.isEmpty()) {
-            return 0.0;
-        }
-
-        double mean = recentLeftCPSValues.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-        return recentLeftCPSValues.stream()
-                .mapToDouble(cps -> Math.pow(cps - mean, 2))
-                .average()
-                .orElse(0.0);
-    }
-
-    private double calculateRightVariance() {
-        if (recentRightCPSValues.isEmpty()) {
-            return 0.0;
-        }
-
-        double mean = recentRightCPSValues.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-        return recentRightCPSValues.stream()
-                .mapToDouble(cps -> Math.pow(cps - mean, 2))
-                .average()
-                .orElse(0.0);
-    }
-
     private double calculateVariance() {
         // Combined variance calculation
-        double leftVar = calculateLeftVariance();
-        double rightVar = calculateRightVariance();
+        double leftVar = recentLeftCPSValues.getVariance();
+        double rightVar = recentRightCPSValues.getVariance();
         return Math.max(leftVar, rightVar);
     }
 
     // Pattern detection method (referenced in CPSManager but missing)
     public boolean hasDetectedPattern(String clickType, double patternThreshold) {
-        List<Double> cpsValues = clickType.equals("left") ? recentLeftCPSValues : recentRightCPSValues;
+        return hasDetectedPattern(clickType.equals("left") ? ClickType.LEFT : ClickType.RIGHT, patternThreshold);
+    }
+
+    public boolean hasDetectedPattern(ClickType clickType, double patternThreshold) {
+        RollingStats cpsValues = clickType == ClickType.LEFT ? recentLeftCPSValues : recentRightCPSValues;
 
         if (cpsValues.size() < 5) {
             return false;
@@ -240,10 +384,66 @@ public class PlayerCPSData {
         return patternRatio >= patternThreshold;
     }
 
+    /**
+     * Start tracking click bursts for both click types
+     * @param duration Window in milliseconds
+     * @param burstClicks Clicks within one window that count as a burst
+     */
+    public void trackBursts(long duration, int burstClicks) {
+        this.leftBursts = new BurstTracker(duration, burstClicks);
+        this.rightBursts = new BurstTracker(duration, burstClicks);
+    }
+
+    /**
+     * Start tracking the entropy of quantized click intervals for both click types
+     * @param window Number of intervals in the window
+     * @param binWidthNanos Width of one interval bin in nanoseconds
+     */
+    public void trackIntervalEntropy(int window, long binWidthNanos) {
+        this.leftEntropy = new IntervalEntropy(window, binWidthNanos);
+        this.rightEntropy = new IntervalEntropy(window, binWidthNanos);
+    }
+
+    /**
+     * Start collecting interval batches for the periodicity check for both click types
+     * @param window Number of intervals in a batch
+     * @param checkInterval New intervals needed before the next batch
+     */
+    public void trackPeriodicity(int window, int checkInterval) {
+        this.leftPeriodicity = new PeriodicityTracker(window, checkInterval);
+        this.rightPeriodicity = new PeriodicityTracker(window, checkInterval);
+    }
+
+    /**
+     * Mark a click type as waiting for analysis
+     * @return true if nothing was pending before, i.e. the player still needs to be queued
+     */
+    public boolean markPendingAnalysis(ClickType clickType) {
+        boolean wasIdle = pendingAnalysis == 0;
+        pendingAnalysis |= 1 << clickType.ordinal();
+        return wasIdle;
+    }
+
+    /**
+     * Get and clear the click types waiting for analysis
+     */
+    public int takePendingAnalysis() {
+        int pending = pendingAnalysis;
+        pendingAnalysis = 0;
+        return pending;
+    }
+
     public void incrementViolations() {
         this.violationCount++;
     }
 
+    /**
+     * Record that a click was received, even if it has not been added yet
+     */
+    public void touch(long time) {
+        this.lastActivity = time;
+    }
+
     public void resetViolations() {
         this.violationCount = 0;
     }
@@ -252,10 +452,22 @@ public class PlayerCPSData {
         this.suspiciousActivityCount++;
     }
 
+    /**
+     * @return A copy of the CPS windows used when none are configured
+     */
+    public static long[] getDefaultCpsWindows() {
+        return DEFAULT_CPS_WINDOWS.clone();
+    }
+
     // Getters
     public String getPlayerName() { return playerName; }
     public int getMaxStoredClicks() { return maxStoredClicks; }
+    public int getPeakWindow() { return peakWindow; }
+    public long[] getCpsWindows() { return cpsWindows.clone(); }
     public long getLastClickTime() { return lastClickTime; }
+    public long getLastActivity() { return lastActivity; }
+    public ClickTrace getTrace() { return trace; }
+    public void setTrace(ClickTrace trace) { this.trace = trace; }
     public long getLastLeftClickTime() { return lastLeftClickTime; }
     public long getLastRightClickTime() { return lastRightClickTime; }
     public int getViolationCount() { return violationCount; }
@@ -263,11 +475,20 @@ public class PlayerCPSData {
     public int getTotalClicks() { return totalClicks; }
     public int getTotalLeftClicks() { return totalLeftClicks; }
     public int getTotalRightClicks() { return totalRightClicks; }
+    public int getTotalClicks(ClickType clickType) { return clickType == ClickType.LEFT ? totalLeftClicks : totalRightClicks; }
+    public long getSessionStartTime() { return sessionStartTime; }
     public long getSessionDuration() { return System.currentTimeMillis() - sessionStartTime; }
+    public DetectionVerdict getVerdict() { return verdict; }
+    public CrossClickStats getCrossClickStats() { return crossClickStats; }
+    public IntervalHistogram getIntervalHistogram(ClickType clickType) { return clickType == ClickType.LEFT ? leftIntervals : rightIntervals; }
+    public IntervalEntropy getIntervalEntropy(ClickType clickType) { return clickType == ClickType.LEFT ? leftEntropy : rightEntropy; }
+    public PeriodicityTracker getPeriodicityTracker(ClickType clickType) { return clickType == ClickType.LEFT ? leftPeriodicity : rightPeriodicity; }
+    public BurstTracker getBurstTracker(ClickType clickType) { return clickType == ClickType.LEFT ? leftBursts : rightBursts; }
     public double getVariance() { return calculateVariance(); }
-    public double getLeftVariance() { return calculateLeftVariance(); }
-    public double getRightVariance() { return calculateRightVariance(); }
-    public List<Double> getRecentLeftCPSValues() { return new ArrayList<>(recentLeftCPSValues); }
-    public List<Double> getRecentRightCPSValues() { return new ArrayList<>(recentRightCPSValues); }
-    public List<Double> getRecentCPSValues() { return new ArrayList<>(recentLeftCPSValues); } // Legacy
+    public double getLeftVariance() { return recentLeftCPSValues.getVariance(); }
+    public double getRightVariance() { return recentRightCPSValues.getVariance(); }
+    public double getVariance(ClickType clickType) { return clickType == ClickType.LEFT ? getLeftVariance() : getRightVariance(); }
+    public List<Double> getRecentLeftCPSValues() { return recentLeftCPSValues.toList(); }
+    public List<Double> getRecentRightCPSValues() { return recentRightCPSValues.toList(); }
+    public List<Double> getRecentCPSValues() { return recentLeftCPSValues.toList(); } // Legacy
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sliding window of the most recent values with a running sum and sum of squares,
+ * so the mean and variance of the window can be read in constant time.
+ */
+public final class RollingStats {
+    private final double[] values;
+    private int head; // Index of the oldest value
+    private int size;
+
+    private double sum;
+    private double sumOfSquares;
+
+    public RollingStats(int capacity) {
+        this.values = new double[Math.max(1, capacity)];
+    }
+
+    public void add(double value) {
+        int tail = head + size;
+        if (tail >= values.length) {
+            tail -= values.length;
+        }
+
+        if (size == values.length) {
+            // Window is full, the new value replaces the oldest one
+            double evicted = values[head];
+            sum -= evicted;
+            sumOfSquares -= evicted * evicted;
+            if (++head == values.length) {
+                head = 0;
+                // Rebuild the sums once per full rotation so rounding errors can't accumulate
+                values[tail] = value;
+                recalculate();
+                return;
+            }
+        } else {
+            size++;
+        }
+
+        values[tail] = value;
+        sum += value;
+        sumOfSquares += value * value;
+    }
+
+    private void recalculate() {
+        double newSum = 0.0;
+        double newSumOfSquares = 0.0;
+        for (double value : values) {
+            newSum += value;
+            newSumOfSquares += value * value;
+        }
+        sum = newSum;
+        sumOfSquares = newSumOfSquares;
+    }
+
+    /**
+     * Get the value at the given position, where 0 is the oldest value in the window
+     */
+    public double get(int index) {
+        int slot = head + index;
+        if (slot >= values.length) {
+            slot -= values.length;
+        }
+        return values[slot];
+    }
+
+    public double getMean() {
+        return size == 0 ? 0.0 : sum / size;
+    }
+
+    /**
+     * Population variance of the values currently in the window
+     */
+    public double getVariance() {
+        if (size == 0) {
+            return 0.0;
+        }
+        double mean = sum / size;
+        // Clamp tiny negative results caused by floating point cancellation
+        return Math.max(0.0, sumOfSquares / size - mean * mean);
+    }
+
+    public List<Double> toList() {
+        List<Double> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(get(i));
+        }
+        return list;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+        sum = 0.0;
+        sumOfSquares = 0.0;
+    }
+
+    public int size() { return size; }
+    public int capacity() { return values.length; }
+    public boolean isFull() { return size == values.length; }
+    public boolean isEmpty() { return size == 0; }
+}
@@ -0,0 +1,62 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+import java.util.UUID;
+
+/**
+ * Immutable summary of one play session, as written to the session store
+ */
+public class SessionSummary {
+    private final UUID playerUUID;
+    private final String playerName;
+    private final long sessionStart;
+    private final long sessionEnd;
+    private final int totalLeftClicks;
+    private final int totalRightClicks;
+    private final double maxLeftCPS;
+    private final double maxRightCPS;
+    private final double leftVariance;
+    private final double rightVariance;
+    private final int violationCount;
+    private final int suspiciousActivityCount;
+
+    public SessionSummary(UUID playerUUID, String playerName, long sessionStart, long sessionEnd,
+                          int totalLeftClicks, int totalRightClicks, double maxLeftCPS, double maxRightCPS,
+                          double leftVariance, double rightVariance, int violationCount, int suspiciousActivityCount) {
+        this.playerUUID = playerUUID;
+        this.playerName = playerName;
+        this.sessionStart = sessionStart;
+        this.sessionEnd = sessionEnd;
+        this.totalLeftClicks = totalLeftClicks;
+        this.totalRightClicks = totalRightClicks;
+        this.maxLeftCPS = maxLeftCPS;
+        this.maxRightCPS = maxRightCPS;
+        this.leftVariance = leftVariance;
+        this.rightVariance = rightVariance;
+        this.violationCount = violationCount;
+        this.suspiciousActivityCount = suspiciousActivityCount;
+    }
+
+    /**
+     * Snapshot a player's current session
+     */
+    public static SessionSummary of(UUID playerUUID, PlayerCPSData data, long sessionEnd) {
+        return new SessionSummary(playerUUID, data.getPlayerName(), data.getSessionStartTime(), sessionEnd,
+                data.getTotalLeftClicks(), data.getTotalRightClicks(), data.getMaxLeftCPS(), data.getMaxRightCPS(),
+                data.getLeftVariance(), data.getRightVariance(), data.getViolationCount(), data.getSuspiciousActivityCount());
+    }
+
+    public UUID getPlayerUUID() { return playerUUID; }
+    public String getPlayerName() { return playerName; }
+    public long getSessionStart() { return sessionStart; }
+    public long getSessionEnd() { return sessionEnd; }
+    public long getSessionDuration() { return sessionEnd - sessionStart; }
+    public int getTotalLeftClicks() { return totalLeftClicks; }
+    public int getTotalRightClicks() { return totalRightClicks; }
+    public int getTotalClicks() { return totalLeftClicks + totalRightClicks; }
+    public double getMaxLeftCPS() { return maxLeftCPS; }
+    public double getMaxRightCPS() { return maxRightCPS; }
+    public double getLeftVariance() { return leftVariance; }
+    public double getRightVariance() { return rightVariance; }
+    public int getViolationCount() { return violationCount; }
+    public int getSuspiciousActivityCount() { return suspiciousActivityCount; }
+}
@@ -0,0 +1,83 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+/**
+ * Sliding window maximum and minimum using monotonic queues.
+ * Each value is pushed and popped at most once per queue, so adding is amortized O(1)
+ * and reading the max or min is O(1) regardless of the window size.
+ */
+public final class SlidingExtremes {
+    private final int window;
+    private final double[] values; // Values indexed by sequence number modulo window
+
+    // Queues hold sequence numbers; values are decreasing in maxQueue and increasing in minQueue
+    private final long[] maxQueue;
+    private final long[] minQueue;
+    private int maxHead, maxSize;
+    private int minHead, minSize;
+
+    private long sequence; // Sequence number of the next value
+
+    public SlidingExtremes(int window) {
+        this.window = Math.max(1, window);
+        this.values = new double[this.window];
+        this.maxQueue = new long[this.window];
+        this.minQueue = new long[this.window];
+    }
+
+    public void add(double value) {
+        long seq = sequence++;
+        values[(int) (seq % window)] = value;
+        long oldestInWindow = seq - window + 1;
+
+        // Drop entries that slid out of the window
+        while (maxSize > 0 && maxQueue[maxHead] < oldestInWindow) {
+            maxHead = next(maxHead);
+            maxSize--;
+        }
+        while (minSize > 0 && minQueue[minHead] < oldestInWindow) {
+            minHead = next(minHead);
+            minSize--;
+        }
+
+        // Drop entries that can no longer be the max/min while the new value is in the window
+        while (maxSize > 0 && valueOf(maxQueue[slot(maxHead, maxSize - 1)]) <= value) {
+            maxSize--;
+        }
+        while (minSize > 0 && valueOf(minQueue[slot(minHead, minSize - 1)]) >= value) {
+            minSize--;
+        }
+
+        maxQueue[slot(maxHead, maxSize++)] = seq;
+        minQueue[slot(minHead, minSize++)] = seq;
+    }
+
+    public double getMax() {
+        return maxSize == 0 ? 0.0 : valueOf(maxQueue[maxHead]);
+    }
+
+    public double getMin() {
+        return minSize == 0 ? 0.0 : valueOf(minQueue[minHead]);
+    }
+
+    public void clear() {
+        sequence = 0;
+        maxHead = maxSize = 0;
+        minHead = minSize = 0;
+    }
+
+    public int getWindow() { return window; }
+    public boolean isEmpty() { return sequence == 0; }
+
+    private double valueOf(long seq) {
+        return values[(int) (seq % window)];
+    }
+
+    private int slot(int head, int offset) {
+        int slot = head + offset;
+        return slot >= window ? slot - window : slot;
+    }
+
+    private int next(int index) {
+        return index + 1 == window ? 0 : index + 1;
+    }
+}
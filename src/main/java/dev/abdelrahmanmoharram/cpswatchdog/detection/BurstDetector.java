@@ -0,0 +1,34 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.BurstTracker;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+
+/**
+ * Flags click bursts: at least burst_threshold CPS worth of clicks within any burst_duration span.
+ * Each burst counts as one violation when it starts and keeps violations from resetting until it ends,
+ * so short macro bursts are caught even when the longer-term CPS stays under the thresholds.
+ */
+public class BurstDetector implements Detector {
+
+    @Override
+    public String getName() {
+        return "burst";
+    }
+
+    @Override
+    public void evaluate(PlayerCPSData data, DetectionVerdict verdict) {
+        BurstTracker bursts = data.getBurstTracker(verdict.getClickType());
+        if (bursts == null) {
+            return;
+        }
+
+        // A burst can start and end between two analyses when analysis is coalesced, it still counts
+        if (bursts.takeNewBurst()) {
+            data.incrementViolations();
+            verdict.flag(ViolationReason.BURST);
+        }
+        if (bursts.isActive()) {
+            verdict.holdViolations();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+
+/**
+ * Flags bot-like consistency: CPS variance over the consistency window below the threshold
+ */
+public class ConsistencyDetector implements Detector {
+    private final double varianceThreshold;
+
+    public ConsistencyDetector(double varianceThreshold) {
+        this.varianceThreshold = varianceThreshold;
+    }
+
+    @Override
+    public String getName() {
+        return "consistency";
+    }
+
+    @Override
+    public void evaluate(PlayerCPSData data, DetectionVerdict verdict) {
+        if (data.isClickPerfectlyConsistent(verdict.getClickType(), varianceThreshold)) {
+            data.incrementSuspiciousActivity();
+            verdict.holdViolations();
+            verdict.setVariance(data.getVariance(verdict.getClickType()));
+            verdict.flag(ViolationReason.CONSISTENCY);
+        }
+    }
+}
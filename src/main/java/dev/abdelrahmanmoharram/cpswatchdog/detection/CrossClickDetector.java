@@ -0,0 +1,54 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.CrossClickStats;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+
+/**
+ * Flags alternating left/right clicking whose merged click rate reaches the high or extreme
+ * threshold, even when each click type on its own stays below its threshold.
+ * Registered for both click types but only evaluated for the type of the newest click, so
+ * analyzing both types in the same tick doesn't count the merged stream twice.
+ */
+public class CrossClickDetector implements Detector {
+    private final double highThreshold;
+    private final double extremeThreshold;
+    private final double alternationThreshold;
+
+    public CrossClickDetector(double highThreshold, double extremeThreshold, double alternationThreshold) {
+        this.highThreshold = highThreshold;
+        this.extremeThreshold = extremeThreshold;
+        this.alternationThreshold = alternationThreshold;
+    }
+
+    @Override
+    public String getName() {
+        return "cross_click";
+    }
+
+    @Override
+    public void evaluate(PlayerCPSData data, DetectionVerdict verdict) {
+        CrossClickStats stats = data.getCrossClickStats();
+        if (!stats.isFull() || stats.getLastType() != verdict.getClickType()
+                || stats.getAlternationRatio() < alternationThreshold) {
+            return;
+        }
+
+        double combinedCPS = stats.getCombinedCPS();
+        if (combinedCPS < highThreshold) {
+            return;
+        }
+
+        // The threshold detector already counted this click if the click type alone was too fast
+        if (!verdict.hasReason(ViolationReason.HIGH_CPS) && !verdict.hasReason(ViolationReason.EXTREME_CPS)) {
+            data.incrementViolations();
+        }
+        if (combinedCPS >= extremeThreshold) {
+            verdict.markExtreme();
+        }
+        verdict.holdViolations();
+        verdict.markCombined(combinedCPS);
+        verdict.flag(ViolationReason.ALTERNATION);
+    }
+
+    public double getAlternationThreshold() { return alternationThreshold; }
+}
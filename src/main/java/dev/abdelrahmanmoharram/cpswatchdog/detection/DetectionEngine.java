@@ -0,0 +1,104 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+
+/**
+ * The detection logic behind recordLeftClick/recordRightClick, without any server state.
+ * Builds the detector pipeline from the settings and analyzes recorded clicks, so the
+ * plugin and the headless replay run exactly the same checks.
+ */
+public class DetectionEngine {
+    private final DetectionSettings settings;
+    private final DetectorPipeline pipeline;
+
+    public DetectionEngine(DetectionSettings settings) {
+        this.settings = settings;
+        this.pipeline = buildPipeline(settings);
+    }
+
+    private static DetectorPipeline buildPipeline(DetectionSettings settings) {
+        DetectorPipeline pipeline = new DetectorPipeline();
+
+        for (ClickType clickType : ClickType.values()) {
+            pipeline.register(clickType, new ThresholdDetector(
+                    settings.getClickHighThreshold(clickType), settings.getClickExtremeThreshold(clickType)));
+            if (settings.isBurstDetection()) {
+                pipeline.register(clickType, new BurstDetector());
+            }
+            if (settings.isConsistencyCheck()) {
+                pipeline.register(clickType, new ConsistencyDetector(settings.getVarianceThreshold()));
+            }
+            if (settings.isPatternDetection()) {
+                pipeline.register(clickType, new PatternDetector(settings.getPatternThreshold()));
+            }
+            if (settings.isIntervalAnalysis()) {
+                pipeline.register(clickType, new IntervalShapeDetector(settings.getIntervalMinSamples(),
+                        settings.getIntervalModeConcentration(), settings.getIntervalMaxKurtosis(),
+                        settings.getIntervalMinOutliers()));
+            }
+            if (settings.isEntropyDetection()) {
+                pipeline.register(clickType, new EntropyDetector(settings.getEntropyFloor()));
+            }
+            if (settings.isPeriodicityDetection()) {
+                pipeline.register(clickType, new PeriodicityDetector(settings.getPeriodicityThreshold()));
+            }
+            if (settings.isCrossClickAnalysis()) {
+                pipeline.register(clickType, new CrossClickDetector(settings.getHighCPSThreshold(),
+                        settings.getExtremeCPSThreshold(), settings.getCrossClickAlternation()));
+            }
+        }
+
+        return pipeline;
+    }
+
+    /**
+     * Create click data sized for these settings
+     */
+    public PlayerCPSData createPlayerData(String playerName) {
+        PlayerCPSData data = new PlayerCPSData(playerName, settings.getMaxStoredClicks(), settings.getPeakWindow(),
+                settings.getCpsWindows());
+        if (settings.isBurstDetection()) {
+            data.trackBursts(settings.getBurstDuration(), settings.getBurstClicks());
+        }
+        if (settings.isEntropyDetection()) {
+            data.trackIntervalEntropy(settings.getEntropyWindow(), settings.getEntropyBinWidthNanos());
+        }
+        if (settings.isPeriodicityDetection()) {
+            data.trackPeriodicity(settings.getPeriodicityWindow(), settings.getPeriodicityCheckInterval());
+        }
+        return data;
+    }
+
+    /**
+     * @return true if the player has enough clicks of this type to be analyzed
+     */
+    public boolean isReadyForAnalysis(PlayerCPSData data, ClickType clickType) {
+        return data.getTotalClicks(clickType) >= settings.getMinimumClicksForAnalysis();
+    }
+
+    /**
+     * Run the detector pipeline for a click that has already been recorded.
+     * Safe to call from any thread as long as only one thread handles the player.
+     * @return The player's verdict, or null if the player doesn't have enough clicks to analyze yet
+     */
+    public DetectionVerdict analyze(PlayerCPSData data, ClickType clickType) {
+        // Only analyze if player has enough clicks
+        if (!isReadyForAnalysis(data, clickType)) {
+            return null;
+        }
+
+        DetectionVerdict verdict = data.getVerdict();
+        pipeline.evaluate(data, clickType, verdict);
+
+        // Reset violations if player is behaving normally
+        if (!verdict.isHoldingViolations() && data.getViolationCount() > 0) {
+            data.resetViolations();
+        }
+
+        return verdict;
+    }
+
+    public DetectionSettings getSettings() { return settings; }
+    public DetectorPipeline getPipeline() { return pipeline; }
+}
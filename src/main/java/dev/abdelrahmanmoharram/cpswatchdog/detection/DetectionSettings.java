@@ -0,0 +1,162 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Detection part of the configuration: thresholds, detector toggles and click storage sizes.
+ * Loaded from the plugin config, or any config.yml when running without a server.
+ */
+public class DetectionSettings {
+    private static final long MAX_CPS_WINDOW = 60000;
+
+    // General thresholds
+    private double highCPSThreshold;
+    private double extremeCPSThreshold;
+
+    // Separate thresholds for left/right clicks
+    private boolean enableSeparateLeftThresholds;
+    private boolean enableSeparateRightThresholds;
+    private double leftClickHighThreshold;
+    private double leftClickExtremeThreshold;
+    private double rightClickHighThreshold;
+    private double rightClickExtremeThreshold;
+
+    // Detection settings
+    private boolean consistencyCheck;
+    private double varianceThreshold;
+    private int minimumClicksForAnalysis;
+    private int peakWindow;
+    private long[] cpsWindows;
+    private boolean patternDetection;
+    private double patternThreshold;
+    private boolean burstDetection;
+    private double burstThreshold;
+    private long burstDuration;
+    private boolean analyzeSeparately;
+    private boolean crossClickAnalysis;
+    private double crossClickAlternation;
+    private boolean intervalAnalysis;
+    private int intervalMinSamples;
+    private double intervalModeConcentration;
+    private double intervalMaxKurtosis;
+    private double intervalMinOutliers;
+    private boolean entropyDetection;
+    private double entropyFloor;
+    private int entropyWindow;
+    private double entropyBinWidth;
+    private boolean periodicityDetection;
+    private int periodicityWindow;
+    private int periodicityCheckInterval;
+    private double periodicityThreshold;
+    private int periodicityMaxLag;
+
+    // Click storage
+    private int maxStoredClicks;
+
+    public static DetectionSettings load(ConfigurationSection config) {
+        DetectionSettings settings = new DetectionSettings();
+
+        // Load general thresholds
+        settings.highCPSThreshold = config.getDouble("thresholds.high_cps", 15.0);
+        settings.extremeCPSThreshold = config.getDouble("thresholds.extreme_cps", 20.0);
+
+        // Load separate click thresholds
+        settings.enableSeparateLeftThresholds = config.getBoolean("thresholds.left_click.enable_separate", false);
+        settings.enableSeparateRightThresholds = config.getBoolean("thresholds.right_click.enable_separate", false);
+
+        settings.leftClickHighThreshold = config.getDouble("thresholds.left_click.high_cps", settings.highCPSThreshold);
+        settings.leftClickExtremeThreshold = config.getDouble("thresholds.left_click.extreme_cps", settings.extremeCPSThreshold);
+        settings.rightClickHighThreshold = config.getDouble("thresholds.right_click.high_cps", settings.highCPSThreshold);
+        settings.rightClickExtremeThreshold = config.getDouble("thresholds.right_click.extreme_cps", settings.extremeCPSThreshold);
+
+        // Load detection settings
+        settings.consistencyCheck = config.getBoolean("detection.consistency_check", true);
+        settings.varianceThreshold = config.getDouble("detection.variance_threshold", 0.1);
+        settings.minimumClicksForAnalysis = config.getInt("detection.minimum_clicks_for_analysis", 10);
+        settings.peakWindow = config.getInt("detection.peak_window", 100);
+        settings.cpsWindows = loadCpsWindows(config.getLongList("detection.cps_windows"));
+
+        settings.patternDetection = config.getBoolean("detection.advanced.pattern_detection", true);
+        settings.patternThreshold = config.getDouble("detection.advanced.pattern_threshold", 0.95);
+        settings.burstDetection = config.getBoolean("detection.advanced.burst_detection", true);
+        settings.burstThreshold = config.getDouble("detection.advanced.burst_threshold", 25.0);
+        settings.burstDuration = config.getLong("detection.advanced.burst_duration", 1000);
+        settings.analyzeSeparately = config.getBoolean("detection.advanced.analyze_separately", true);
+        settings.crossClickAnalysis = config.getBoolean("detection.advanced.cross_click_analysis", false);
+        settings.crossClickAlternation = config.getDouble("detection.advanced.cross_click_alternation", 0.8);
+
+        settings.intervalAnalysis = config.getBoolean("detection.advanced.interval_analysis", false);
+        settings.intervalMinSamples = config.getInt("detection.advanced.interval_min_samples", 50);
+        settings.intervalModeConcentration = config.getDouble("detection.advanced.interval_mode_concentration", 0.9);
+        settings.intervalMaxKurtosis = config.getDouble("detection.advanced.interval_max_kurtosis", -1.0);
+        settings.intervalMinOutliers = config.getDouble("detection.advanced.interval_min_outliers", 0.01);
+
+        settings.entropyDetection = config.getBoolean("detection.advanced.entropy_detection", false);
+        settings.entropyFloor = config.getDouble("detection.advanced.entropy_floor", 0.5);
+        settings.entropyWindow = config.getInt("detection.advanced.entropy_window", 50);
+        settings.entropyBinWidth = config.getDouble("detection.advanced.entropy_bin_width", 50.0);
+
+        settings.periodicityDetection = config.getBoolean("detection.advanced.periodicity_detection", false);
+        settings.periodicityWindow = Math.max(16, config.getInt("detection.advanced.periodicity_window", 256));
+        settings.periodicityCheckInterval = Math.max(1, config.getInt("detection.advanced.periodicity_check_interval", 64));
+        settings.periodicityThreshold = config.getDouble("detection.advanced.periodicity_threshold", 0.5);
+        settings.periodicityMaxLag = Math.max(2, config.getInt("detection.advanced.periodicity_max_lag", 32));
+
+        settings.maxStoredClicks = config.getInt("performance.max_stored_clicks", 20);
+        return settings;
+    }
+
+    private static long[] loadCpsWindows(List<Long> configured) {
+        long[] windows = new long[configured.size()];
+        int count = 0;
+        for (Long window : configured) {
+            if (window != null && window > 0) {
+                windows[count++] = Math.min(window, MAX_CPS_WINDOW);
+            }
+        }
+        return count > 0 ? Arrays.copyOf(windows, count) : PlayerCPSData.getDefaultCpsWindows();
+    }
+
+    public double getHighCPSThreshold() { return highCPSThreshold; }
+    public double getExtremeCPSThreshold() { return extremeCPSThreshold; }
+    public double getLeftClickHighThreshold() { return enableSeparateLeftThresholds ? leftClickHighThreshold : highCPSThreshold; }
+    public double getLeftClickExtremeThreshold() { return enableSeparateLeftThresholds ? leftClickExtremeThreshold : extremeCPSThreshold; }
+    public double getRightClickHighThreshold() { return enableSeparateRightThresholds ? rightClickHighThreshold : highCPSThreshold; }
+    public double getRightClickExtremeThreshold() { return enableSeparateRightThresholds ? rightClickExtremeThreshold : extremeCPSThreshold; }
+    public double getClickHighThreshold(ClickType clickType) { return clickType == ClickType.LEFT ? getLeftClickHighThreshold() : getRightClickHighThreshold(); }
+    public double getClickExtremeThreshold(ClickType clickType) { return clickType == ClickType.LEFT ? getLeftClickExtremeThreshold() : getRightClickExtremeThreshold(); }
+    public boolean isConsistencyCheck() { return consistencyCheck; }
+    public double getVarianceThreshold() { return varianceThreshold; }
+    public int getMinimumClicksForAnalysis() { return minimumClicksForAnalysis; }
+    public int getPeakWindow() { return peakWindow; }
+    public long[] getCpsWindows() { return cpsWindows.clone(); }
+    public boolean isPatternDetection() { return patternDetection; }
+    public double getPatternThreshold() { return patternThreshold; }
+    public boolean isBurstDetection() { return burstDetection; }
+    public double getBurstThreshold() { return burstThreshold; }
+    public long getBurstDuration() { return burstDuration; }
+    public int getBurstClicks() { return (int) Math.max(2, Math.ceil(burstThreshold * burstDuration / 1000.0)); }
+    public boolean isAnalyzeSeparately() { return analyzeSeparately; }
+    public boolean isCrossClickAnalysis() { return crossClickAnalysis; }
+    public double getCrossClickAlternation() { return crossClickAlternation; }
+    public boolean isIntervalAnalysis() { return intervalAnalysis; }
+    public int getIntervalMinSamples() { return intervalMinSamples; }
+    public double getIntervalModeConcentration() { return intervalModeConcentration; }
+    public double getIntervalMaxKurtosis() { return intervalMaxKurtosis; }
+    public double getIntervalMinOutliers() { return intervalMinOutliers; }
+    public boolean isEntropyDetection() { return entropyDetection; }
+    public double getEntropyFloor() { return entropyFloor; }
+    public int getEntropyWindow() { return entropyWindow; }
+    public long getEntropyBinWidthNanos() { return Math.max(1L, Math.round(entropyBinWidth * 1_000_000L)); }
+    public boolean isPeriodicityDetection() { return periodicityDetection; }
+    public int getPeriodicityWindow() { return periodicityWindow; }
+    public int getPeriodicityCheckInterval() { return periodicityCheckInterval; }
+    public double getPeriodicityThreshold() { return periodicityThreshold; }
+    public int getPeriodicityMaxLag() { return periodicityMaxLag; }
+    public int getMaxStoredClicks() { return maxStoredClicks; }
+}
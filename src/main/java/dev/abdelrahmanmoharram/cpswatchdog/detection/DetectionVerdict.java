@@ -0,0 +1,120 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+
+/**
+ * Mutable result of one pipeline run. Each player owns a single instance that is reset
+ * and reused for every analyzed click instead of allocating a new result.
+ * Findings are kept as a {@link ViolationReason} bitmask plus the numeric values behind them;
+ * the reason text is only rendered when something reads it.
+ */
+public class DetectionVerdict {
+    private ClickType clickType;
+    private double currentCPS;
+    private double variance;
+    private double combinedCPS;
+    private int reasons;
+    private boolean extreme;
+    private boolean combined;
+    private boolean holdingViolations;
+    private int violationCount;
+
+    private String renderedReason; // Cached text for the current reasons, built on first request
+
+    void reset(ClickType clickType, double currentCPS) {
+        this.clickType = clickType;
+        this.currentCPS = currentCPS;
+        this.variance = 0.0;
+        this.combinedCPS = 0.0;
+        this.reasons = 0;
+        this.extreme = false;
+        this.combined = false;
+        this.holdingViolations = false;
+        this.violationCount = 0;
+        this.renderedReason = null;
+    }
+
+    /**
+     * Mark the click as suspicious for the given reason
+     */
+    public void flag(ViolationReason reason) {
+        reasons |= reason.getMask();
+        renderedReason = null;
+    }
+
+    /**
+     * Mark the click as extreme (used for broadcasts and severe log output)
+     */
+    public void markExtreme() {
+        this.extreme = true;
+    }
+
+    /**
+     * Mark the verdict as being about the merged left/right stream (uses the combined alert message)
+     * @param combinedCPS Click rate of the merged stream
+     */
+    public void markCombined(double combinedCPS) {
+        this.combined = true;
+        this.combinedCPS = combinedCPS;
+    }
+
+    /**
+     * Prevent the player's violation count from being reset after this click
+     */
+    public void holdViolations() {
+        this.holdingViolations = true;
+    }
+
+    /**
+     * Record the CPS variance that triggered a consistency finding
+     */
+    public void setVariance(double variance) {
+        this.variance = variance;
+    }
+
+    /**
+     * Copy this verdict so it can be handed to another thread while the original is reused
+     */
+    public DetectionVerdict copy() {
+        DetectionVerdict copy = new DetectionVerdict();
+        copy.clickType = clickType;
+        copy.currentCPS = currentCPS;
+        copy.variance = variance;
+        copy.combinedCPS = combinedCPS;
+        copy.reasons = reasons;
+        copy.extreme = extreme;
+        copy.combined = combined;
+        copy.holdingViolations = holdingViolations;
+        copy.violationCount = violationCount;
+        copy.renderedReason = renderedReason;
+        return copy;
+    }
+
+    void setViolationCount(int violationCount) {
+        this.violationCount = violationCount;
+    }
+
+    /**
+     * Human-readable reason text. Rendered on the first call and cached until the verdict changes,
+     * so callers that never dispatch an alert never pay for the string work.
+     */
+    public String getReason() {
+        if (renderedReason == null) {
+            renderedReason = ViolationReason.render(reasons, clickType, currentCPS, combinedCPS);
+        }
+        return renderedReason;
+    }
+
+    // Getters
+    public ClickType getClickType() { return clickType; }
+    public double getCurrentCPS() { return currentCPS; }
+    public double getVariance() { return variance; }
+    public double getCombinedCPS() { return combinedCPS; }
+    public int getReasons() { return reasons; }
+    public boolean hasReason(ViolationReason reason) { return reason.isSet(reasons); }
+    public boolean isSuspicious() { return reasons != 0; }
+    public boolean isExtreme() { return extreme; }
+    public boolean isCombined() { return combined; }
+    public boolean isHoldingViolations() { return holdingViolations; }
+    public int getViolationCount() { return violationCount; }
+}
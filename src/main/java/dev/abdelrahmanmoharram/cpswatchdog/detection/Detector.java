@@ -0,0 +1,23 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+
+/**
+ * A single behaviour check run by the {@link DetectorPipeline}.
+ * Implementations write their findings into the supplied verdict and must not allocate
+ * when the player is behaving normally, since they run on every analyzed click.
+ */
+public interface Detector {
+
+    /**
+     * @return Short identifier used in logs and configuration
+     */
+    String getName();
+
+    /**
+     * Evaluate the player's click data for the verdict's click type
+     * @param data The player's click data
+     * @param verdict The verdict being built for this click, already reset for the click type
+     */
+    void evaluate(PlayerCPSData data, DetectionVerdict verdict);
+}
@@ -0,0 +1,54 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Ordered chains of detectors keyed by click type.
+ * Detectors run in the order they were registered, so registration order defines evaluation order.
+ */
+public class DetectorPipeline {
+    private static final Detector[] NO_DETECTORS = new Detector[0];
+
+    private final Map<ClickType, Detector[]> chains = new EnumMap<>(ClickType.class);
+
+    public DetectorPipeline() {
+        for (ClickType type : ClickType.values()) {
+            chains.put(type, NO_DETECTORS);
+        }
+    }
+
+    /**
+     * Append a detector to the end of the chain for a click type
+     */
+    public void register(ClickType clickType, Detector detector) {
+        Detector[] chain = chains.get(clickType);
+        Detector[] extended = Arrays.copyOf(chain, chain.length + 1);
+        extended[chain.length] = detector;
+        chains.put(clickType, extended);
+    }
+
+    /**
+     * Run every detector registered for the click type against the player's data
+     * @param data The player's click data
+     * @param clickType The type of click that triggered the analysis
+     * @param verdict The player's reusable verdict, reset before the detectors run
+     */
+    public void evaluate(PlayerCPSData data, ClickType clickType, DetectionVerdict verdict) {
+        verdict.reset(clickType, data.getIntervalCPS(clickType));
+
+        for (Detector detector : chains.get(clickType)) {
+            detector.evaluate(data, verdict);
+        }
+
+        verdict.setViolationCount(data.getViolationCount());
+    }
+
+    public Detector[] getDetectors(ClickType clickType) {
+        return chains.get(clickType).clone();
+    }
+}
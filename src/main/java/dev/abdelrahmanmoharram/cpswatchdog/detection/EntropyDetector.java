@@ -0,0 +1,33 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.IntervalEntropy;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+
+/**
+ * Flags low-entropy click timing: macros that cycle through a handful of delays keep their
+ * quantized intervals in very few bins, while human timing spreads across many
+ */
+public class EntropyDetector implements Detector {
+    private final double entropyFloor;
+
+    public EntropyDetector(double entropyFloor) {
+        this.entropyFloor = entropyFloor;
+    }
+
+    @Override
+    public String getName() {
+        return "entropy";
+    }
+
+    @Override
+    public void evaluate(PlayerCPSData data, DetectionVerdict verdict) {
+        IntervalEntropy entropy = data.getIntervalEntropy(verdict.getClickType());
+        if (entropy != null && entropy.isFull() && entropy.getEntropy() < entropyFloor) {
+            data.incrementSuspiciousActivity();
+            verdict.holdViolations();
+            verdict.flag(ViolationReason.LOW_ENTROPY);
+        }
+    }
+
+    public double getEntropyFloor() { return entropyFloor; }
+}
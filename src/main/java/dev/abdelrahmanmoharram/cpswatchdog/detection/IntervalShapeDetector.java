@@ -0,0 +1,46 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.IntervalHistogram;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+
+/**
+ * Flags machine-like click timing from the shape of the inter-click interval histogram.
+ * Human intervals are peaked, lean right and include the odd stray interval; clickers either
+ * pile up around one interval or spread evenly across a jitter range, with nothing far outside it.
+ */
+public class IntervalShapeDetector implements Detector {
+    private static final double MAX_FLAT_SKEWNESS = 0.5;
+
+    private final int minSamples;
+    private final double modeConcentration;
+    private final double maxKurtosis;
+    private final double minOutliers;
+
+    public IntervalShapeDetector(int minSamples, double modeConcentration, double maxKurtosis, double minOutliers) {
+        this.minSamples = minSamples;
+        this.modeConcentration = modeConcentration;
+        this.maxKurtosis = maxKurtosis;
+        this.minOutliers = minOutliers;
+    }
+
+    @Override
+    public String getName() {
+        return "interval_shape";
+    }
+
+    @Override
+    public void evaluate(PlayerCPSData data, DetectionVerdict verdict) {
+        IntervalHistogram intervals = data.getIntervalHistogram(verdict.getClickType());
+        if (intervals.getSampleCount() < minSamples || intervals.getOutlierRatio() >= minOutliers) {
+            return;
+        }
+
+        boolean concentrated = intervals.getModeConcentration() >= modeConcentration;
+        boolean flat = intervals.getKurtosis() <= maxKurtosis && Math.abs(intervals.getSkewness()) <= MAX_FLAT_SKEWNESS;
+        if (concentrated || flat) {
+            data.incrementSuspiciousActivity();
+            verdict.holdViolations();
+            verdict.flag(ViolationReason.INTERVAL_SHAPE);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+
+/**
+ * Flags repetitive click patterns in the recent CPS history
+ */
+public class PatternDetector implements Detector {
+    private final double patternThreshold;
+
+    public PatternDetector(double patternThreshold) {
+        this.patternThreshold = patternThreshold;
+    }
+
+    @Override
+    public String getName() {
+        return "pattern";
+    }
+
+    @Override
+    public void evaluate(PlayerCPSData data, DetectionVerdict verdict) {
+        if (data.hasDetectedPattern(verdict.getClickType(), patternThreshold)) {
+            verdict.flag(ViolationReason.PATTERN);
+        }
+    }
+}
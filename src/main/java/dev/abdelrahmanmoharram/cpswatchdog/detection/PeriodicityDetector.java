@@ -0,0 +1,106 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.PeriodicityTracker;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+
+import java.util.Arrays;
+
+/**
+ * Flags periodic click timing: randomized clickers that cycle through a delay sequence pass the
+ * variance check but repeat themselves every few clicks. The score is computed off the main
+ * thread by {@link #score} on batches of intervals and judged here once per new batch.
+ */
+public class PeriodicityDetector implements Detector {
+    private static final double MIN_DIFFERENCE_MILLIS = 1.0; // Smaller changes are timer noise
+    private static final double MIN_CHANGING_SHARE = 0.25;
+
+    private final double periodicityThreshold;
+
+    public PeriodicityDetector(double periodicityThreshold) {
+        this.periodicityThreshold = periodicityThreshold;
+    }
+
+    @Override
+    public String getName() {
+        return "periodicity";
+    }
+
+    @Override
+    public void evaluate(PlayerCPSData data, DetectionVerdict verdict) {
+        PeriodicityTracker tracker = data.getPeriodicityTracker(verdict.getClickType());
+        if (tracker != null && tracker.takeNewScore() && tracker.getScore() >= periodicityThreshold) {
+            data.incrementSuspiciousActivity();
+            verdict.holdViolations();
+            verdict.flag(ViolationReason.PERIODIC);
+        }
+    }
+
+    /**
+     * Periodicity of an interval series: the highest autocorrelation of its first differences at
+     * lags 2 to maxLag. Differencing removes slow drift in click speed, so independent human timing
+     * scores near 0 while a repeating delay sequence of length k scores close to 1 at lag k.
+     * Pauses are capped at twice the median interval first, otherwise two pauses a few clicks
+     * apart dominate the series and look like a period.
+     *
+     * A steady player's differences are mostly zero, so a few isolated late clicks would make up
+     * the whole variance and correlate with each other. The series therefore scores 0 unless at
+     * least a quarter of its differences change the interval, and a lag only counts if the
+     * differences one lag apart agree in sign at least two full periods' worth more often than
+     * they disagree. Runs in O(n · maxLag); safe to call from any thread.
+     * @param intervals Consecutive intervals, oldest first
+     * @return Score from 0 to 1
+     */
+    public static double score(double[] intervals, int maxLag) {
+        int n = intervals.length - 1;
+        if (n < 4) {
+            return 0.0;
+        }
+
+        double[] sorted = intervals.clone();
+        Arrays.sort(sorted);
+        double cap = 2 * sorted[sorted.length / 2];
+
+        double[] differences = new double[n];
+        int[] signs = new int[n]; // 0 for differences within timer noise
+        int changing = 0;
+        double mean = 0.0;
+        for (int i = 0; i < n; i++) {
+            differences[i] = Math.min(intervals[i + 1], cap) - Math.min(intervals[i], cap);
+            if (Math.abs(differences[i]) >= MIN_DIFFERENCE_MILLIS) {
+                signs[i] = differences[i] > 0 ? 1 : -1;
+                changing++;
+            }
+            mean += differences[i];
+        }
+        if (changing < n * MIN_CHANGING_SHARE) {
+            return 0.0;
+        }
+        mean /= n;
+
+        double variance = 0.0;
+        for (int i = 0; i < n; i++) {
+            differences[i] -= mean;
+            variance += differences[i] * differences[i];
+        }
+        if (variance < 1e-9) {
+            return 0.0; // Constant spacing has no period to find, the consistency checks cover it
+        }
+
+        double best = 0.0;
+        int lastLag = Math.min(maxLag, n / 3);
+        for (int lag = 2; lag <= lastLag; lag++) {
+            double covariance = 0.0;
+            int agreement = 0; // Agreeing minus disagreeing signs, near 0 for independent timing
+            for (int i = lag; i < n; i++) {
+                covariance += differences[i] * differences[i - lag];
+                agreement += signs[i] * signs[i - lag];
+            }
+            if (agreement >= 2 * lag) {
+                best = Math.max(best, covariance / variance);
+            }
+        }
+        return best;
+    }
+
+    public double getPeriodicityThreshold() { return periodicityThreshold; }
+}
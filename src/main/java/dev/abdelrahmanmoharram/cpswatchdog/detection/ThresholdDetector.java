@@ -0,0 +1,40 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+
+/**
+ * Flags clicks whose current CPS reaches the high or extreme threshold and counts them as violations
+ */
+public class ThresholdDetector implements Detector {
+    private final double highThreshold;
+    private final double extremeThreshold;
+
+    public ThresholdDetector(double highThreshold, double extremeThreshold) {
+        this.highThreshold = highThreshold;
+        this.extremeThreshold = extremeThreshold;
+    }
+
+    @Override
+    public String getName() {
+        return "threshold";
+    }
+
+    @Override
+    public void evaluate(PlayerCPSData data, DetectionVerdict verdict) {
+        double currentCPS = verdict.getCurrentCPS();
+
+        if (currentCPS >= extremeThreshold) {
+            data.incrementViolations();
+            verdict.markExtreme();
+            verdict.holdViolations();
+            verdict.flag(ViolationReason.EXTREME_CPS);
+        } else if (currentCPS >= highThreshold) {
+            data.incrementViolations();
+            verdict.holdViolations();
+            verdict.flag(ViolationReason.HIGH_CPS);
+        }
+    }
+
+    public double getHighThreshold() { return highThreshold; }
+    public double getExtremeThreshold() { return extremeThreshold; }
+}
@@ -0,0 +1,87 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+
+/**
+ * Reasons a click can be flagged for. A verdict records them as a bitmask and only
+ * turns them into text when an alert or log line is actually sent.
+ */
+public enum ViolationReason {
+    EXTREME_CPS,
+    HIGH_CPS,
+    BURST,
+    CONSISTENCY,
+    PATTERN,
+    ALTERNATION,
+    INTERVAL_SHAPE,
+    LOW_ENTROPY,
+    PERIODIC;
+
+    private static final ViolationReason[] VALUES = values();
+
+    private final int mask = 1 << ordinal();
+
+    public int getMask() {
+        return mask;
+    }
+
+    public boolean isSet(int reasons) {
+        return (reasons & mask) != 0;
+    }
+
+    /**
+     * Render a reason bitmask as human-readable text, e.g. "High Left CPS: 16.2 & Click burst detected"
+     * @param reasons Bitmask of {@link #getMask()} values
+     * @param clickType The click type the reasons were recorded for
+     * @param cps The CPS value recorded with the reasons
+     * @param combinedCPS The click rate of the merged left/right stream, for {@link #ALTERNATION}
+     * @return The combined reason text
+     */
+    public static String render(int reasons, ClickType clickType, double cps, double combinedCPS) {
+        StringBuilder builder = new StringBuilder(64);
+        for (ViolationReason reason : VALUES) {
+            if (reason.isSet(reasons)) {
+                if (builder.length() > 0) {
+                    builder.append(" & ");
+                }
+                reason.appendTo(builder, clickType, cps, combinedCPS);
+            }
+        }
+        return builder.toString();
+    }
+
+    private void appendTo(StringBuilder builder, ClickType clickType, double cps, double combinedCPS) {
+        switch (this) {
+            case EXTREME_CPS:
+                builder.append("Extreme ").append(clickType.getDisplayName()).append(" CPS: ")
+                        .append(String.format("%.1f", cps));
+                break;
+            case HIGH_CPS:
+                builder.append("High ").append(clickType.getDisplayName()).append(" CPS: ")
+                        .append(String.format("%.1f", cps));
+                break;
+            case BURST:
+                builder.append("Click burst detected");
+                break;
+            case CONSISTENCY:
+                builder.append("Bot-like ").append(clickType.getName()).append(" click consistency");
+                break;
+            case PATTERN:
+                builder.append("Repetitive click pattern");
+                break;
+            case ALTERNATION:
+                builder.append("Alternating left/right clicks at ").append(String.format("%.1f", combinedCPS))
+                        .append(" combined CPS");
+                break;
+            case INTERVAL_SHAPE:
+                builder.append("Machine-like ").append(clickType.getName()).append(" click timing");
+                break;
+            case LOW_ENTROPY:
+                builder.append("Low ").append(clickType.getName()).append(" click timing entropy");
+                break;
+            case PERIODIC:
+                builder.append("Periodic ").append(clickType.getName()).append(" click pattern");
+                break;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package dev.abdelrahmanmoharram.cpswatchdog.listeners;
 
 import dev.abdelrahmanmoharram.cpswatchdog.cpswatchdog;
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -17,15 +18,17 @@ public class ClickListener implements Listener {
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerInteract(PlayerInteractEvent event) {
+        long nanoTime = System.nanoTime();
         Player player = event.getPlayer();
+        Action action = event.getAction();
 
         // Track left clicks (attacks/mining)
-        if (event.getAction() == Action.LEFT_CLICK_AIR || event.getAction() == Action.LEFT_CLICK_BLOCK) {
-            plugin.getCPSManager().recordLeftClick(player);
+        if (action == Action.LEFT_CLICK_AIR || action == Action.LEFT_CLICK_BLOCK) {
+            plugin.getCPSManager().recordClick(player, ClickType.LEFT, action, nanoTime);
         }
         // Track right clicks (interactions/placing blocks)
-        else if (event.getAction() == Action.RIGHT_CLICK_AIR || event.getAction() == Action.RIGHT_CLICK_BLOCK) {
-            plugin.getCPSManager().recordRightClick(player);
+        else if (action == Action.RIGHT_CLICK_AIR || action == Action.RIGHT_CLICK_BLOCK) {
+            plugin.getCPSManager().recordClick(player, ClickType.RIGHT, action, nanoTime);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package dev.abdelrahmanmoharram.cpswatchdog.listeners;
+
+import dev.abdelrahmanmoharram.cpswatchdog.cpswatchdog;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+public class PlayerConnectionListener implements Listener {
+    private final cpswatchdog plugin;
+
+    public PlayerConnectionListener(cpswatchdog plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        plugin.getCPSManager().getAlertRecipients().handleJoin(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getCPSManager().getAlertRecipients().handleQuit(event.getPlayer());
+        plugin.getCPSManager().handleQuit(event.getPlayer());
+    }
+}
@@ -0,0 +1,285 @@
+package dev.abdelrahmanmoharram.cpswatchdog.manager;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionVerdict;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Analyzes clicks off the main thread when performance.async_processing is enabled.
+ *
+ * Every player gets a single-producer/single-consumer mailbox that is pinned to one worker,
+ * so a player's clicks are always applied and analyzed in order by the same thread and
+ * their PlayerCPSData is only ever mutated by that worker. Clicks that arrive while a
+ * mailbox is already queued are picked up in the same batch. Verdicts that need action
+ * are copied and handed back to the main thread, which dispatches them once per tick.
+ *
+ * On shutdown every worker drains what is already queued before it exits, and any mailbox
+ * that is still left over is drained on the main thread, so no click is lost and the data
+ * never has two writers.
+ */
+public class AnalysisExecutor {
+    private static final int MAILBOX_CAPACITY = 256;
+    private static final long SHUTDOWN_WAIT_MILLIS = 1000;
+
+    private final Plugin plugin;
+    private final CPSManager manager;
+    private final Worker[] workers;
+    private final Map<UUID, ClickMailbox> mailboxes = new ConcurrentHashMap<>();
+    private final Queue<CompletedAnalysis> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicLong droppedClicks = new AtomicLong();
+    private final ClickMailbox poisonPill = new ClickMailbox(null, null, null); // Tells a worker to exit
+    private boolean stopping; // Main thread only
+    private BukkitTask dispatchTask;
+
+    public AnalysisExecutor(Plugin plugin, CPSManager manager, int threads) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.workers = new Worker[Math.max(1, threads)];
+    }
+
+    public void start() {
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker("CPSWatchdog-Analysis-" + (i + 1));
+            workers[i].start();
+        }
+
+        // Hand finished verdicts back to the main thread once per tick
+        dispatchTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                dispatchCompleted();
+            }
+        }.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    /**
+     * Stop accepting clicks, analyze every click still queued and dispatch the verdicts.
+     * Returns only once no worker is running, so the caller may touch player data afterwards.
+     * Must be called from the main thread.
+     */
+    public void shutdown() {
+        stopping = true;
+        if (dispatchTask != null) {
+            dispatchTask.cancel();
+            dispatchTask = null;
+        }
+
+        // Queued behind every mailbox already waiting, so each worker drains its queue first
+        for (Worker worker : workers) {
+            if (worker != null) {
+                worker.queue.offer(poisonPill);
+            }
+        }
+
+        boolean interrupted = false;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_WAIT_MILLIS;
+        for (Worker worker : workers) {
+            if (worker == null) {
+                continue;
+            }
+            while (worker.isAlive()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    plugin.getLogger().warning(worker.getName() + " is still analyzing clicks, waiting for it to finish");
+                    deadline = Long.MAX_VALUE;
+                    remaining = 0; // Wait without a limit
+                }
+                try {
+                    worker.join(remaining);
+                } catch (InterruptedException e) {
+                    // The data must not be handed back while a worker may still write to it
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        // A mailbox rescheduled behind the poison pill still holds clicks; apply them here
+        for (ClickMailbox mailbox : mailboxes.values()) {
+            try {
+                mailbox.drain();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "Error while analyzing clicks", e);
+            }
+        }
+        mailboxes.clear();
+        dispatchCompleted();
+    }
+
+    /**
+     * Queue a click for analysis. Must be called from the main thread.
+     * @param playerUUID The clicking player
+     * @param data The player's click data, only touched by the player's worker from now on
+     * @param clickType The type of click
+     * @param time The time the click happened
+     * @param nanoTime System.nanoTime when the click happened
+     */
+    public void submit(UUID playerUUID, PlayerCPSData data, ClickType clickType, long time, long nanoTime) {
+        if (stopping) {
+            droppedClicks.incrementAndGet();
+            return;
+        }
+
+        ClickMailbox mailbox = mailboxes.get(playerUUID);
+        if (mailbox == null || mailbox.data != data) {
+            mailbox = new ClickMailbox(playerUUID, data, workers[(playerUUID.hashCode() & Integer.MAX_VALUE) % workers.length]);
+            mailboxes.put(playerUUID, mailbox);
+        }
+
+        if (!mailbox.offer(clickType, time, nanoTime)) {
+            droppedClicks.incrementAndGet();
+            return;
+        }
+
+        mailbox.schedule();
+    }
+
+    /**
+     * Check whether a worker may still write to a player's data. Must be called from the main thread.
+     * Once this returns false the data is safe to read until the next submit.
+     */
+    public boolean isAnalyzing(UUID playerUUID, PlayerCPSData data) {
+        ClickMailbox mailbox = mailboxes.get(playerUUID);
+        // The flag is cleared after the worker's last write, so reading it also makes those writes visible
+        return mailbox != null && mailbox.data == data && (mailbox.scheduled.get() || mailbox.head.get() != mailbox.tail.get());
+    }
+
+    /**
+     * Forget a player's mailbox once their data has been discarded
+     */
+    public void remove(UUID playerUUID) {
+        mailboxes.remove(playerUUID);
+    }
+
+    private void dispatchCompleted() {
+        CompletedAnalysis analysis;
+        while ((analysis = completed.poll()) != null) {
+            manager.dispatchVerdict(analysis.playerUUID, analysis.data, analysis.verdict);
+        }
+    }
+
+    public int getMailboxCount() { return mailboxes.size(); }
+    public long getDroppedClicks() { return droppedClicks.get(); }
+    public int getThreadCount() { return workers.length; }
+
+    private static final class CompletedAnalysis {
+        final UUID playerUUID;
+        final PlayerCPSData data;
+        final DetectionVerdict verdict;
+
+        CompletedAnalysis(UUID playerUUID, PlayerCPSData data, DetectionVerdict verdict) {
+            this.playerUUID = playerUUID;
+            this.data = data;
+            this.verdict = verdict;
+        }
+    }
+
+    /**
+     * Bounded SPSC queue of clicks for one player. The main thread writes at the tail,
+     * the owning worker reads at the head.
+     */
+    private final class ClickMailbox {
+        final UUID playerUUID;
+        final PlayerCPSData data;
+        final Worker worker;
+        final long[] times = new long[MAILBOX_CAPACITY];
+        final long[] nanoTimes = new long[MAILBOX_CAPACITY];
+        final ClickType[] types = new ClickType[MAILBOX_CAPACITY];
+        final AtomicLong head = new AtomicLong(); // Next slot to read, advanced by the worker
+        final AtomicLong tail = new AtomicLong(); // Next slot to write, advanced by the main thread
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        ClickMailbox(UUID playerUUID, PlayerCPSData data, Worker worker) {
+            this.playerUUID = playerUUID;
+            this.data = data;
+            this.worker = worker;
+        }
+
+        boolean offer(ClickType clickType, long time, long nanoTime) {
+            long t = tail.get();
+            if (t - head.get() >= MAILBOX_CAPACITY) {
+                return false;
+            }
+            int slot = (int) (t % MAILBOX_CAPACITY);
+            times[slot] = time;
+            nanoTimes[slot] = nanoTime;
+            types[slot] = clickType;
+            tail.lazySet(t + 1); // Publishes the slot writes to the worker
+            return true;
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                worker.queue.offer(this);
+            }
+        }
+
+        // Runs on the owning worker thread, or on the main thread once every worker has exited
+        void drain() {
+            try {
+                long h = head.get();
+                long t = tail.get();
+                while (h < t) {
+                    int slot = (int) (h % MAILBOX_CAPACITY);
+                    ClickType clickType = types[slot];
+                    data.addClick(clickType, times[slot], nanoTimes[slot]);
+                    head.lazySet(++h);
+
+                    DetectionVerdict verdict = manager.analyzePlayerBehavior(data, clickType);
+                    if (verdict != null && verdict.isSuspicious()) {
+                        completed.offer(new CompletedAnalysis(playerUUID, data, verdict.copy()));
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+
+            // A click may have arrived after the last read but before the flag was cleared
+            if (head.get() != tail.get()) {
+                schedule();
+            }
+        }
+    }
+
+    private final class Worker extends Thread {
+        final BlockingQueue<ClickMailbox> queue = new LinkedBlockingQueue<>();
+
+        Worker(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    ClickMailbox mailbox = queue.take();
+                    if (mailbox == poisonPill) {
+                        return;
+                    }
+                    mailbox.drain();
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    plugin.getLogger().log(Level.WARNING, "Error while analyzing clicks", e);
+                }
+            }
+        }
+    }
+}
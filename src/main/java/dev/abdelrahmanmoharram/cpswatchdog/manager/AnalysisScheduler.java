@@ -0,0 +1,93 @@
+package dev.abdelrahmanmoharram.cpswatchdog.manager;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionVerdict;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+
+/**
+ * Tick-driven analysis on the main thread, used when async processing is disabled.
+ *
+ * Recording a click only marks the player dirty for that click type. Once per tick the
+ * scheduler takes up to performance.max_players_per_tick dirty players in the order they
+ * became dirty and analyzes each pending click type once, no matter how many clicks
+ * arrived in between. Players left over wait at the front of the queue for the next tick.
+ */
+public class AnalysisScheduler {
+    private static final ClickType[] CLICK_TYPES = ClickType.values();
+
+    private final Plugin plugin;
+    private final CPSManager manager;
+    private final Deque<PlayerCPSData> dirtyPlayers = new ArrayDeque<>();
+    private final Deque<UUID> dirtyPlayerIds = new ArrayDeque<>(); // Kept in step with dirtyPlayers
+    private int maxPlayersPerTick;
+    private BukkitTask tickTask;
+
+    public AnalysisScheduler(Plugin plugin, CPSManager manager, int maxPlayersPerTick) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.maxPlayersPerTick = maxPlayersPerTick;
+    }
+
+    public void start() {
+        tickTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                tick();
+            }
+        }.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    public void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        dirtyPlayers.clear();
+        dirtyPlayerIds.clear();
+    }
+
+    /**
+     * Request analysis of a player's clicks of the given type on the next tick.
+     * Repeated calls before the analysis runs are coalesced.
+     */
+    public void markDirty(UUID playerUUID, PlayerCPSData data, ClickType clickType) {
+        if (data.markPendingAnalysis(clickType)) {
+            dirtyPlayers.offer(data);
+            dirtyPlayerIds.offer(playerUUID);
+        }
+    }
+
+    private void tick() {
+        // A non-positive limit means every dirty player is analyzed each tick
+        int budget = maxPlayersPerTick > 0 ? maxPlayersPerTick : Integer.MAX_VALUE;
+
+        PlayerCPSData data;
+        while (budget-- > 0 && (data = dirtyPlayers.poll()) != null) {
+            UUID playerUUID = dirtyPlayerIds.poll();
+            int pending = data.takePendingAnalysis();
+            for (ClickType clickType : CLICK_TYPES) {
+                if ((pending & (1 << clickType.ordinal())) == 0) {
+                    continue;
+                }
+
+                DetectionVerdict verdict = manager.analyzePlayerBehavior(data, clickType);
+                if (verdict != null) {
+                    manager.dispatchVerdict(playerUUID, data, verdict);
+                }
+            }
+        }
+    }
+
+    public void setMaxPlayersPerTick(int maxPlayersPerTick) {
+        this.maxPlayersPerTick = maxPlayersPerTick;
+    }
+
+    public int getPendingCount() { return dirtyPlayers.size(); }
+}
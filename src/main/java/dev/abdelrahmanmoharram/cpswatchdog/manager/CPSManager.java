@@ -1,42 +1,54 @@
 package dev.abdelrahmanmoharram.cpswatchdog.manager;
 
-import dev.abdelrahmanmoharram.cpswatchdog.cpswatchdog;
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickTrace;
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
 import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+import dev.abdelrahmanmoharram.cpswatchdog.data.SessionSummary;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionEngine;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionSettings;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionVerdict;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectorPipeline;
+import dev.abdelrahmanmoharram.cpswatchdog.metrics.PerformanceMetrics;
+import dev.abdelrahmanmoharram.cpswatchdog.metrics.PerformanceMetrics.Stage;
+import dev.abdelrahmanmoharram.cpswatchdog.services.AlertDispatcher;
+import dev.abdelrahmanmoharram.cpswatchdog.services.AlertRecipientService;
+import dev.abdelrahmanmoharram.cpswatchdog.services.AuditLogger;
+import dev.abdelrahmanmoharram.cpswatchdog.services.ClickTraceRecorder;
+import dev.abdelrahmanmoharram.cpswatchdog.services.SessionStore;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.event.block.Action;
+import org.bukkit.plugin.Plugin;
 
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CPSManager {
-    private final cpswatchdog plugin;
+    private final Plugin plugin;
     private final Map<UUID, PlayerCPSData> playerData;
-    private final Set<UUID> alertEnabledPlayers;
+    private final AlertRecipientService alertRecipients;
+    private final AlertDispatcher alertDispatcher;
+    private final AuditLogger auditLogger;
+    private final PerformanceMetrics metrics;
 
     // General configuration values
-    private double highCPSThreshold;
-    private double extremeCPSThreshold;
     private int violationsForAlert;
 
-    // Separate thresholds for left/right clicks
-    private boolean enableSeparateLeftThresholds;
-    private boolean enableSeparateRightThresholds;
-    private double leftClickHighThreshold;
-    private double leftClickExtremeThreshold;
-    private double rightClickHighThreshold;
-    private double rightClickExtremeThreshold;
-
     // Alert settings
     private boolean notifyStaff;
     private boolean logToConsole;
     private boolean broadcastExtreme;
     private boolean enableSounds;
+    private long recipientRefreshInterval;
+    private long alertCoalesceWindow;
+    private boolean auditLogEnabled;
+    private int auditQueueCapacity;
+    private long auditMaxFileSize;
+    private int auditMaxFiles;
     private String highCPSSound;
     private String extremeCPSSound;
 
@@ -44,60 +56,74 @@ public class CPSManager {
     private String leftClickAlertMessage;
     private String rightClickAlertMessage;
     private String combinedAlertMessage;
-
-    // Detection settings
-    private boolean consistencyCheck;
-    private double varianceThreshold;
-    private int minimumClicksForAnalysis;
-    private boolean patternDetection;
-    private double patternThreshold;
-    private boolean burstDetection;
-    private double burstThreshold;
-    private long burstDuration;
-    private boolean analyzeSeparately;
-    private boolean crossClickAnalysis;
+    private String digestAlertMessage;
 
     // Data management settings
-    private long cleanupInterval;
+    private long expiryTick;
     private long sessionTimeout;
+    private long quitGracePeriod;
     private boolean savePlayerData;
     private int dataRetentionDays;
     private boolean autoCleanup;
+    private boolean recordTraces;
+    private int traceClicksPerPlayer;
+    private int traceMaxFiles;
 
     // Performance settings
     private boolean asyncProcessing;
     private int maxPlayersPerTick;
     private boolean optimizeMemory;
-    private int maxStoredClicks;
+    private int analysisThreads;
+    private boolean collectMetrics;
+
+    // Thresholds and detectors built from the configuration
+    private volatile DetectionEngine detectionEngine;
 
-    public CPSManager(cpswatchdog plugin) {
+    // Exactly one of these is running: the executor when async processing is enabled, the scheduler otherwise
+    private volatile AnalysisExecutor analysisExecutor;
+    private AnalysisScheduler analysisScheduler;
+    private volatile PlayerDataExpiry dataExpiry;
+    private volatile SessionStore sessionStore;
+    private volatile ClickTraceRecorder traceRecorder;
+    private volatile PeriodicityAnalyzer periodicityAnalyzer;
+
+    public CPSManager(Plugin plugin) {
         this.plugin = plugin;
-        this.playerData = new HashMap<>();
-        this.alertEnabledPlayers = new HashSet<>();
+        this.playerData = new ConcurrentHashMap<>();
+        this.alertRecipients = new AlertRecipientService(plugin);
+        this.alertDispatcher = new AlertDispatcher(plugin, alertRecipients);
+        this.auditLogger = new AuditLogger(plugin);
+        this.metrics = new PerformanceMetrics();
 
         loadConfiguration();
-        startCleanupTask();
+        alertRecipients.load();
+        alertRecipients.startRefreshTask(recipientRefreshInterval * 20L);
+        alertDispatcher.start();
+        auditLogger.start();
+        updateAnalysisMode();
+        startSessionStore();
+        startTraceRecorder();
+        startPeriodicityAnalyzer();
+        startDataExpiry();
     }
 
     private void loadConfiguration() {
-        // Load general thresholds
-        highCPSThreshold = plugin.getConfig().getDouble("thresholds.high_cps", 15.0);
-        extremeCPSThreshold = plugin.getConfig().getDouble("thresholds.extreme_cps", 20.0);
+        // Load thresholds and detection settings
+        detectionEngine = new DetectionEngine(DetectionSettings.load(plugin.getConfig()));
         violationsForAlert = plugin.getConfig().getInt("thresholds.violations_for_alert", 5);
 
-        // Load separate click thresholds
-        enableSeparateLeftThresholds = plugin.getConfig().getBoolean("thresholds.left_click.enable_separate", false);
-        enableSeparateRightThresholds = plugin.getConfig().getBoolean("thresholds.right_click.enable_separate", false);
-
-        leftClickHighThreshold = plugin.getConfig().getDouble("thresholds.left_click.high_cps", highCPSThreshold);
-        leftClickExtremeThreshold = plugin.getConfig().getDouble("thresholds.left_click.extreme_cps", extremeCPSThreshold);
-        rightClickHighThreshold = plugin.getConfig().getDouble("thresholds.right_click.high_cps", highCPSThreshold);
-        rightClickExtremeThreshold = plugin.getConfig().getDouble("thresholds.right_click.extreme_cps", extremeCPSThreshold);
-
         // Load alert settings
         notifyStaff = plugin.getConfig().getBoolean("alerts.notify_staff", true);
         logToConsole = plugin.getConfig().getBoolean("alerts.log_to_console", true);
         broadcastExtreme = plugin.getConfig().getBoolean("alerts.broadcast_extreme", false);
+        recipientRefreshInterval = plugin.getConfig().getLong("alerts.recipient_refresh_interval", 30);
+        alertCoalesceWindow = plugin.getConfig().getLong("alerts.coalesce_window", 5000);
+
+        auditLogEnabled = plugin.getConfig().getBoolean("alerts.audit_log.enabled", true);
+        auditQueueCapacity = plugin.getConfig().getInt("alerts.audit_log.queue_capacity", 4096);
+        auditMaxFileSize = plugin.getConfig().getLong("alerts.audit_log.max_file_size", 10);
+        auditMaxFiles = plugin.getConfig().getInt("alerts.audit_log.max_files", 14);
+        auditLogger.configure(auditQueueCapacity, auditLogEnabled, logToConsole, auditMaxFileSize, auditMaxFiles);
 
         enableSounds = plugin.getConfig().getBoolean("alerts.sounds.enable_sounds", false);
         highCPSSound = plugin.getConfig().getString("alerts.sounds.high_cps_sound", "BLOCK_NOTE_BLOCK_PLING");
@@ -113,64 +139,43 @@ public class CPSManager {
         combinedAlertMessage = ChatColor.translateAlternateColorCodes('&',
                 plugin.getConfig().getString("alerts.messages.combined_alert",
                         "&c[CPSWatchdog] &e{player} &fhas suspicious click behavior: &c{reason}"));
-
-        // Load detection settings
-        consistencyCheck = plugin.getConfig().getBoolean("detection.consistency_check", true);
-        varianceThreshold = plugin.getConfig().getDouble("detection.variance_threshold", 0.1);
-        minimumClicksForAnalysis = plugin.getConfig().getInt("detection.minimum_clicks_for_analysis", 10);
-
-        patternDetection = plugin.getConfig().getBoolean("detection.advanced.pattern_detection", true);
-        patternThreshold = plugin.getConfig().getDouble("detection.advanced.pattern_threshold", 0.95);
-        burstDetection = plugin.getConfig().getBoolean("detection.advanced.burst_detection", true);
-        burstThreshold = plugin.getConfig().getDouble("detection.advanced.burst_threshold", 25.0);
-        burstDuration = plugin.getConfig().getLong("detection.advanced.burst_duration", 1000);
-        analyzeSeparately = plugin.getConfig().getBoolean("detection.advanced.analyze_separately", true);
-        crossClickAnalysis = plugin.getConfig().getBoolean("detection.advanced.cross_click_analysis", false);
+        digestAlertMessage = ChatColor.translateAlternateColorCodes('&',
+                plugin.getConfig().getString("alerts.messages.digest_alert",
+                        "&c[CPSWatchdog] &e{player} &fhad &c{count} &fmore alerts in the last {window}s (peak &c{peak} CPS&f)"));
+        alertDispatcher.configure(alertCoalesceWindow, digestAlertMessage);
 
         // Load data management settings
-        cleanupInterval = plugin.getConfig().getLong("data.cleanup_interval", 300000);
+        expiryTick = plugin.getConfig().getLong("data.expiry_tick", 1000);
+        if (plugin.getConfig().isSet("data.cleanup_interval")) {
+            // Older configs set this to minutes, which would stretch the quit grace period just as far
+            plugin.getLogger().warning("data.cleanup_interval is no longer used, data.expiry_tick ("
+                    + expiryTick + " ms) sets how often inactive player data is removed");
+        }
         sessionTimeout = plugin.getConfig().getLong("data.session_timeout", 300000);
+        quitGracePeriod = plugin.getConfig().getLong("data.quit_grace_period", 10000);
         savePlayerData = plugin.getConfig().getBoolean("data.storage.save_player_data", false);
         dataRetentionDays = plugin.getConfig().getInt("data.storage.data_retention_days", 7);
         autoCleanup = plugin.getConfig().getBoolean("data.storage.auto_cleanup", true);
 
+        recordTraces = plugin.getConfig().getBoolean("data.traces.enabled", true);
+        traceClicksPerPlayer = plugin.getConfig().getInt("data.traces.max_clicks_per_player", 65536);
+        traceMaxFiles = plugin.getConfig().getInt("data.traces.max_files", 20);
+
         // Load performance settings
         asyncProcessing = plugin.getConfig().getBoolean("performance.async_processing", false);
         maxPlayersPerTick = plugin.getConfig().getInt("performance.max_players_per_tick", 10);
         optimizeMemory = plugin.getConfig().getBoolean("performance.optimize_memory", true);
-        maxStoredClicks = plugin.getConfig().getInt("performance.max_stored_clicks", 20);
+        analysisThreads = plugin.getConfig().getInt("performance.analysis_threads", 2);
+        collectMetrics = plugin.getConfig().getBoolean("performance.collect_metrics", true);
+        metrics.setEnabled(collectMetrics);
     }
 
     public void recordLeftClick(Player player) {
-        UUID playerUUID = player.getUniqueId();
-        PlayerCPSData data = playerData.computeIfAbsent(playerUUID, k -> new PlayerCPSData(player.getName(), maxStoredClicks));
-
-        data.addLeftClick();
-
-        // Only analyze if player has enough clicks
-        if (data.getTotalLeftClicks() >= minimumClicksForAnalysis) {
-            if (asyncProcessing) {
-                analyzePlayerBehaviorAsync(player, data, "left");
-            } else {
-                analyzePlayerBehavior(player, data, "left");
-            }
-        }
+        recordClick(player, ClickType.LEFT);
     }
 
     public void recordRightClick(Player player) {
-        UUID playerUUID = player.getUniqueId();
-        PlayerCPSData data = playerData.computeIfAbsent(playerUUID, k -> new PlayerCPSData(player.getName(), maxStoredClicks));
-
-        data.addRightClick();
-
-        // Only analyze if player has enough clicks
-        if (data.getTotalRightClicks() >= minimumClicksForAnalysis) {
-            if (asyncProcessing) {
-                analyzePlayerBehaviorAsync(player, data, "right");
-            } else {
-                analyzePlayerBehavior(player, data, "right");
-            }
-        }
+        recordClick(player, ClickType.RIGHT);
     }
 
     // Legacy method for backward compatibility
@@ -178,128 +183,130 @@ public class CPSManager {
         recordLeftClick(player);
     }
 
-    private void analyzePlayerBehaviorAsync(Player player, PlayerCPSData data, String clickType) {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            analyzePlayerBehavior(player, data, clickType);
-        });
+    public void recordClick(Player player, ClickType clickType) {
+        recordClick(player, clickType, null, System.nanoTime());
     }
 
-    private void analyzePlayerBehavior(Player player, PlayerCPSData data, String clickType) {
-        double currentCPS;
-        boolean suspicious = false;
-        StringBuilder reasonBuilder = new StringBuilder();
-        String clickTypeFormatted = clickType.equals("left") ? "Left" : "Right";
+    /**
+     * Record a click
+     * @param action The action that caused the click, or null if unknown
+     * @param nanoTime System.nanoTime when the click was received, used for raw click traces
+     */
+    public void recordClick(Player player, ClickType clickType, Action action, long nanoTime) {
+        UUID playerUUID = player.getUniqueId();
+        PlayerCPSData data = playerData.computeIfAbsent(playerUUID, k -> createPlayerData(k, player.getName()));
+        long now = System.currentTimeMillis();
+        data.touch(now);
 
-        // Get appropriate CPS and thresholds based on click type
-        double highThreshold, extremeThreshold;
-        if (clickType.equals("left")) {
-            currentCPS = data.getCurrentLeftCPS();
-            highThreshold = enableSeparateLeftThresholds ? leftClickHighThreshold : highCPSThreshold;
-            extremeThreshold = enableSeparateLeftThresholds ? leftClickExtremeThreshold : extremeCPSThreshold;
-        } else {
-            currentCPS = data.getCurrentRightCPS();
-            highThreshold = enableSeparateRightThresholds ? rightClickHighThreshold : highCPSThreshold;
-            extremeThreshold = enableSeparateRightThresholds ? rightClickExtremeThreshold : extremeCPSThreshold;
+        ClickTrace trace = data.getTrace();
+        if (trace != null) {
+            trace.record(nanoTime, clickType, action != null ? action.ordinal() : -1);
         }
 
-        boolean isExtreme = false;
-
-        // Check CPS thresholds
-        if (currentCPS >= extremeThreshold) {
-            data.incrementViolations();
-            suspicious = true;
-            isExtreme = true;
-            reasonBuilder.append("Extreme ").append(clickTypeFormatted)
-                    .append(" CPS: ").append(String.format("%.1f", currentCPS));
+        AnalysisExecutor executor = analysisExecutor;
+        if (executor != null) {
+            // The player's worker records and analyzes the click; results come back on the main thread
+            executor.submit(playerUUID, data, clickType, now, nanoTime);
+        } else {
+            data.addClick(clickType, now, nanoTime);
 
-            if (broadcastExtreme) {
-                broadcastToAll(ChatColor.DARK_RED + "[CPSWatchdog] " + player.getName() +
-                        " is " + clickType + " clicking at " + String.format("%.1f", currentCPS) + " CPS!");
+            // Analysis runs on the next tick, once per player and click type however many clicks arrive
+            if (detectionEngine.isReadyForAnalysis(data, clickType)) {
+                analysisScheduler.markDirty(playerUUID, data, clickType);
             }
-        } else if (currentCPS >= highThreshold) {
-            data.incrementViolations();
-            suspicious = true;
-            reasonBuilder.append("High ").append(clickTypeFormatted)
-                    .append(" CPS: ").append(String.format("%.1f", currentCPS));
         }
 
-        // Check for burst detection
-        if (burstDetection && currentCPS >= burstThreshold) {
-            if (reasonBuilder.length() > 0) reasonBuilder.append(" & ");
-            reasonBuilder.append("Click burst detected");
-            suspicious = true;
-        }
+        // Measured from when the click listener received the event
+        metrics.countClick(clickType);
+        metrics.stop(Stage.RECORD, nanoTime);
+    }
 
-        // Check for bot-like consistency
-        boolean isConsistent = false;
-        if (consistencyCheck) {
-            if (clickType.equals("left")) {
-                isConsistent = data.isLeftClickPerfectlyConsistent(varianceThreshold);
-            } else {
-                isConsistent = data.isRightClickPerfectlyConsistent(varianceThreshold);
-            }
+    /**
+     * Run the detector pipeline for a click that has already been recorded.
+     * Safe to call from an analysis worker as long as only one thread handles the player.
+     * @return The player's verdict, or null if the player doesn't have enough clicks to analyze yet
+     */
+    DetectionVerdict analyzePlayerBehavior(PlayerCPSData data, ClickType clickType) {
+        long started = metrics.start();
+        DetectionVerdict verdict = detectionEngine.analyze(data, clickType);
+        // Due interval batches are scored in the background and judged on a later analysis
+        PeriodicityAnalyzer periodicity = periodicityAnalyzer;
+        if (periodicity != null) {
+            periodicity.offer(data.getPeriodicityTracker(clickType));
+        }
+        metrics.stop(Stage.ANALYSIS, started);
+        return verdict;
+    }
 
-            if (isConsistent) {
-                data.incrementSuspiciousActivity();
-                suspicious = true;
-                if (reasonBuilder.length() > 0) reasonBuilder.append(" & ");
-                reasonBuilder.append("Bot-like ").append(clickType).append(" click consistency");
-            }
+    private PlayerCPSData createPlayerData(UUID playerUUID, String playerName) {
+        PlayerCPSData data = detectionEngine.createPlayerData(playerName);
+        PlayerDataExpiry expiry = dataExpiry;
+        if (expiry != null) {
+            expiry.track(playerUUID, data);
         }
+        return data;
+    }
 
-        // Check for patterns if enabled
-        if (patternDetection && data.hasDetectedPattern(clickType, patternThreshold)) {
-            suspicious = true;
-            if (reasonBuilder.length() > 0) reasonBuilder.append(" & ");
-            reasonBuilder.append("Repetitive click pattern");
+    /**
+     * Act on a verdict: broadcasts, console logging and staff alerts. Must run on the main thread.
+     */
+    void dispatchVerdict(UUID playerUUID, PlayerCPSData data, DetectionVerdict verdict) {
+        if (verdict.isExtreme() && broadcastExtreme) {
+            String clicking = verdict.isCombined() ? "alternating left/right" : verdict.getClickType().getName();
+            double cps = verdict.isCombined() ? verdict.getCombinedCPS() : verdict.getCurrentCPS();
+            broadcastToAll(ChatColor.DARK_RED + "[CPSWatchdog] " + data.getPlayerName() +
+                    " is " + clicking + " clicking at " + String.format("%.1f", cps) + " CPS!");
         }
 
         // Handle violations
-        if (suspicious) {
-            String reason = reasonBuilder.toString();
-            handleSuspiciousActivity(player, data, reason, isExtreme, clickType);
+        if (verdict.isSuspicious()) {
+            handleSuspiciousActivity(data.getPlayerName(), verdict);
         }
 
-        // Reset violations if player is behaving normally
-        if (currentCPS < highThreshold && !isConsistent) {
-            if (data.getViolationCount() > 0) {
-                data.resetViolations();
-            }
+        // Keep full-resolution evidence of players who reach the alert threshold
+        ClickTraceRecorder recorder = traceRecorder;
+        if (recorder != null && data.getTrace() == null && verdict.getViolationCount() >= violationsForAlert) {
+            recorder.startTrace(playerUUID, data);
         }
     }
 
-    private void handleSuspiciousActivity(Player player, PlayerCPSData data, String reason, boolean extreme, String clickType) {
-        // Log to console
-        if (logToConsole) {
-            String logMessage = String.format("[CPSWatchdog] %s: %s (Violations: %d)",
-                    player.getName(), reason, data.getViolationCount());
-            if (extreme) {
-                plugin.getLogger().severe(logMessage);
-            } else {
-                plugin.getLogger().warning(logMessage);
-            }
-        }
+    private void handleSuspiciousActivity(String playerName, DetectionVerdict verdict) {
+        long started = metrics.start();
+        metrics.countViolation(verdict.isExtreme());
+
+        // Console and audit file output is rendered and written by the audit logger's own thread
+        auditLogger.logViolation(playerName, verdict);
 
         // Notify staff if violations reach threshold
-        if (data.getViolationCount() >= violationsForAlert && notifyStaff) {
-            notifyStaffMembers(player, data, reason, extreme, clickType);
+        if (verdict.getViolationCount() >= violationsForAlert && notifyStaff) {
+            notifyStaffMembers(playerName, verdict);
         }
+        metrics.stop(Stage.ALERT, started);
     }
 
-    private void notifyStaffMembers(Player player, PlayerCPSData data, String reason, boolean extreme, String clickType) {
+    private void notifyStaffMembers(String playerName, DetectionVerdict verdict) {
+        ClickType clickType = verdict.getClickType();
+        boolean extreme = verdict.isExtreme();
+
+        // Nobody would read it, or it is folded into this suspect's digest
+        if (alertRecipients.getRecipients().isEmpty()
+                || !alertDispatcher.record(playerName, Math.max(verdict.getCurrentCPS(), verdict.getCombinedCPS()), extreme)) {
+            return;
+        }
+
         String messageTemplate;
-        if (clickType.equals("left")) {
+        if (verdict.isCombined()) {
+            messageTemplate = combinedAlertMessage;
+        } else if (clickType == ClickType.LEFT) {
             messageTemplate = leftClickAlertMessage;
-        } else if (clickType.equals("right")) {
-            messageTemplate = rightClickAlertMessage;
         } else {
-            messageTemplate = combinedAlertMessage;
+            messageTemplate = rightClickAlertMessage;
         }
 
         String message = messageTemplate
-                .replace("{player}", player.getName())
-                .replace("{reason}", reason)
-                .replace("{violations}", String.valueOf(data.getViolationCount()));
+                .replace("{player}", playerName)
+                .replace("{reason}", verdict.getReason())
+                .replace("{violations}", String.valueOf(verdict.getViolationCount()));
 
         Sound alertSound = null;
         if (enableSounds) {
@@ -311,15 +318,9 @@ public class CPSManager {
             }
         }
 
-        for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
-            if (onlinePlayer.hasPermission("cpswatchdog.notify") && alertEnabledPlayers.contains(onlinePlayer.getUniqueId())) {
-                onlinePlayer.sendMessage(message);
-
-                if (alertSound != null) {
-                    onlinePlayer.playSound(onlinePlayer.getLocation(), alertSound, 0.5f, 1.0f);
-                }
-            }
-        }
+        // Delivered to all recipients together with the rest of this tick's alerts
+        alertDispatcher.enqueue(message, alertSound, extreme);
+        metrics.countStaffAlert(extreme);
     }
 
     private void broadcastToAll(String message) {
@@ -332,15 +333,7 @@ public class CPSManager {
      * @return true if alerts are now enabled, false if disabled
      */
     public boolean toggleAlerts(Player player) {
-        UUID playerUUID = player.getUniqueId();
-
-        if (alertEnabledPlayers.contains(playerUUID)) {
-            alertEnabledPlayers.remove(playerUUID);
-            return false;
-        } else {
-            alertEnabledPlayers.add(playerUUID);
-            return true;
-        }
+        return alertRecipients.toggle(player);
     }
 
     /**
@@ -349,7 +342,7 @@ public class CPSManager {
      * @return true if alerts are enabled for this player
      */
     public boolean hasAlertsEnabled(Player player) {
-        return alertEnabledPlayers.contains(player.getUniqueId());
+        return alertRecipients.isEnabled(player);
     }
 
     /**
@@ -357,7 +350,7 @@ public class CPSManager {
      * @param player The player to enable alerts for
      */
     public void enableAlerts(Player player) {
-        alertEnabledPlayers.add(player.getUniqueId());
+        alertRecipients.setEnabled(player, true);
     }
 
     /**
@@ -365,7 +358,7 @@ public class CPSManager {
      * @param player The player to disable alerts for
      */
     public void disableAlerts(Player player) {
-        alertEnabledPlayers.remove(player.getUniqueId());
+        alertRecipients.setEnabled(player, false);
     }
 
     /**
@@ -373,7 +366,7 @@ public class CPSManager {
      * @return Set of UUIDs for players with alerts enabled
      */
     public Set<UUID> getAlertEnabledPlayers() {
-        return new HashSet<>(alertEnabledPlayers);
+        return alertRecipients.getAlertEnabledPlayers();
     }
 
     /**
@@ -389,30 +382,145 @@ public class CPSManager {
         }
     }
 
-    private void startCleanupTask() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (autoCleanup) {
-                    cleanupInactiveData();
-                }
-            }
-        }.runTaskTimer(plugin, cleanupInterval / 50, cleanupInterval / 50); // Convert ms to ticks
+    /**
+     * Start expiring inactive player data to match the current configuration
+     */
+    private void startDataExpiry() {
+        stopDataExpiry();
+        if (!autoCleanup) {
+            return;
+        }
+
+        dataExpiry = new PlayerDataExpiry(plugin, this, expiryTick, sessionTimeout, quitGracePeriod);
+        for (Map.Entry<UUID, PlayerCPSData> entry : playerData.entrySet()) {
+            dataExpiry.track(entry.getKey(), entry.getValue());
+        }
+        dataExpiry.start();
+    }
+
+    private void stopDataExpiry() {
+        if (dataExpiry != null) {
+            dataExpiry.shutdown();
+            dataExpiry = null;
+        }
+    }
+
+    /**
+     * Schedule a player's data to expire shortly after they quit
+     */
+    public void handleQuit(Player player) {
+        PlayerCPSData data = playerData.get(player.getUniqueId());
+        PlayerDataExpiry expiry = dataExpiry;
+        if (data != null && expiry != null) {
+            expiry.demote(player.getUniqueId(), data, System.currentTimeMillis());
+        }
+    }
+
+    boolean isTracked(UUID playerUUID, PlayerCPSData data) {
+        return playerData.get(playerUUID) == data;
+    }
+
+    /**
+     * @return true while an analysis worker has clicks of this data queued or in progress
+     */
+    boolean isAnalyzing(UUID playerUUID, PlayerCPSData data) {
+        AnalysisExecutor executor = analysisExecutor;
+        return executor != null && executor.isAnalyzing(playerUUID, data);
+    }
+
+    /**
+     * Discard a player's data unless it has been replaced. Must be called from the main thread.
+     * @return true if the data was removed
+     */
+    boolean expirePlayerData(UUID playerUUID, PlayerCPSData data) {
+        if (!playerData.remove(playerUUID, data)) {
+            return false;
+        }
+        metrics.countExpiredPlayer();
+
+        AnalysisExecutor executor = analysisExecutor;
+        if (executor != null) {
+            executor.remove(playerUUID);
+        }
+
+        SessionStore store = sessionStore;
+        if (store != null) {
+            store.append(SessionSummary.of(playerUUID, data, data.getLastActivity()));
+        }
+
+        ClickTraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.stopTrace(playerUUID, data);
+        }
+        return true;
+    }
+
+    /**
+     * Create the click trace recorder if data.traces.enabled is set
+     */
+    private void startTraceRecorder() {
+        stopTraceRecorder();
+        if (!recordTraces) {
+            return;
+        }
+
+        // Traces are only attached to data that is still the player's current data
+        traceRecorder = new ClickTraceRecorder(plugin, traceClicksPerPlayer, traceMaxFiles,
+                (playerUUID, data) -> playerData.get(playerUUID) == data);
     }
 
-    private void cleanupInactiveData() {
-        long currentTime = System.currentTimeMillis();
-        int initialSize = playerData.size();
+    /**
+     * Start scoring interval batches for periodicity if detection.advanced.periodicity_detection is enabled
+     */
+    private void startPeriodicityAnalyzer() {
+        stopPeriodicityAnalyzer();
+        DetectionSettings settings = detectionEngine.getSettings();
+        if (!settings.isPeriodicityDetection()) {
+            return;
+        }
 
-        playerData.entrySet().removeIf(entry -> {
-            PlayerCPSData data = entry.getValue();
-            return (currentTime - data.getLastClickTime()) > sessionTimeout;
-        });
+        periodicityAnalyzer = new PeriodicityAnalyzer(settings.getPeriodicityMaxLag());
+        periodicityAnalyzer.start();
+    }
 
-        int removedEntries = initialSize - playerData.size();
+    private void stopPeriodicityAnalyzer() {
+        if (periodicityAnalyzer != null) {
+            periodicityAnalyzer.shutdown();
+            periodicityAnalyzer = null;
+        }
+    }
+
+    private void stopTraceRecorder() {
+        if (traceRecorder == null) {
+            return;
+        }
 
-        if (removedEntries > 0 && logToConsole) {
-            plugin.getLogger().info("Cleaned up " + removedEntries + " inactive player data entries.");
+        // Traces belong to the old recorder; flagged players get new ones on their next alert.
+        // Detached before the recorder unmaps them, so no click is written to a closed trace.
+        for (PlayerCPSData data : playerData.values()) {
+            data.setTrace(null);
+        }
+        traceRecorder.shutdown();
+        traceRecorder = null;
+    }
+
+    /**
+     * Open the session store if data.storage.save_player_data is enabled
+     */
+    private void startSessionStore() {
+        stopSessionStore();
+        if (!savePlayerData) {
+            return;
+        }
+
+        sessionStore = new SessionStore(plugin, dataRetentionDays, autoCleanup);
+        sessionStore.start();
+    }
+
+    private void stopSessionStore() {
+        if (sessionStore != null) {
+            sessionStore.shutdown();
+            sessionStore = null;
         }
     }
 
@@ -420,28 +528,110 @@ public class CPSManager {
         return playerData.get(playerUUID);
     }
 
+    /**
+     * @return The session store, or null if save_player_data is disabled
+     */
+    public SessionStore getSessionStore() {
+        return sessionStore;
+    }
+
+    /**
+     * Switch between async workers and the tick scheduler to match the current configuration
+     */
+    private void updateAnalysisMode() {
+        if (asyncProcessing) {
+            stopAnalysisScheduler();
+            if (analysisExecutor != null && analysisExecutor.getThreadCount() != Math.max(1, analysisThreads)) {
+                stopAnalysisExecutor();
+            }
+            if (analysisExecutor == null) {
+                analysisExecutor = new AnalysisExecutor(plugin, this, analysisThreads);
+                analysisExecutor.start();
+            }
+        } else {
+            stopAnalysisExecutor();
+            if (analysisScheduler == null) {
+                analysisScheduler = new AnalysisScheduler(plugin, this, maxPlayersPerTick);
+                analysisScheduler.start();
+            } else {
+                analysisScheduler.setMaxPlayersPerTick(maxPlayersPerTick);
+            }
+        }
+    }
+
+    private void stopAnalysisExecutor() {
+        if (analysisExecutor != null) {
+            analysisExecutor.shutdown();
+            analysisExecutor = null;
+        }
+    }
+
+    private void stopAnalysisScheduler() {
+        if (analysisScheduler != null) {
+            analysisScheduler.shutdown();
+            analysisScheduler = null;
+        }
+    }
+
+    /**
+     * Stop background work (call this when the plugin is disabled)
+     */
+    public void shutdown() {
+        stopAnalysisExecutor();
+        stopAnalysisScheduler();
+        stopDataExpiry();
+
+        // Sessions still in progress are saved as they stand
+        if (sessionStore != null) {
+            for (Map.Entry<UUID, PlayerCPSData> entry : playerData.entrySet()) {
+                sessionStore.append(SessionSummary.of(entry.getKey(), entry.getValue(), entry.getValue().getLastActivity()));
+            }
+        }
+        stopSessionStore();
+        stopTraceRecorder();
+        stopPeriodicityAnalyzer();
+
+        alertRecipients.stopRefreshTask();
+        alertRecipients.save();
+        alertDispatcher.shutdown();
+        auditLogger.shutdown();
+    }
+
     public void reloadConfiguration() {
         loadConfiguration();
+        updateAnalysisMode();
+        startSessionStore();
+        startTraceRecorder();
+        startPeriodicityAnalyzer();
+        startDataExpiry();
+        alertRecipients.startRefreshTask(recipientRefreshInterval * 20L);
         plugin.getLogger().info("CPSWatchdog configuration reloaded.");
     }
 
     // Getters for configuration values
-    public double getHighCPSThreshold() { return highCPSThreshold; }
-    public double getExtremeCPSThreshold() { return extremeCPSThreshold; }
-    public double getLeftClickHighThreshold() { return enableSeparateLeftThresholds ? leftClickHighThreshold : highCPSThreshold; }
-    public double getLeftClickExtremeThreshold() { return enableSeparateLeftThresholds ? leftClickExtremeThreshold : extremeCPSThreshold; }
-    public double getRightClickHighThreshold() { return enableSeparateRightThresholds ? rightClickHighThreshold : highCPSThreshold; }
-    public double getRightClickExtremeThreshold() { return enableSeparateRightThresholds ? rightClickExtremeThreshold : extremeCPSThreshold; }
+    public double getHighCPSThreshold() { return detectionEngine.getSettings().getHighCPSThreshold(); }
+    public double getExtremeCPSThreshold() { return detectionEngine.getSettings().getExtremeCPSThreshold(); }
+    public double getLeftClickHighThreshold() { return detectionEngine.getSettings().getLeftClickHighThreshold(); }
+    public double getLeftClickExtremeThreshold() { return detectionEngine.getSettings().getLeftClickExtremeThreshold(); }
+    public double getRightClickHighThreshold() { return detectionEngine.getSettings().getRightClickHighThreshold(); }
+    public double getRightClickExtremeThreshold() { return detectionEngine.getSettings().getRightClickExtremeThreshold(); }
+    public double getClickHighThreshold(ClickType clickType) { return detectionEngine.getSettings().getClickHighThreshold(clickType); }
+    public double getClickExtremeThreshold(ClickType clickType) { return detectionEngine.getSettings().getClickExtremeThreshold(clickType); }
     public int getViolationsForAlert() { return violationsForAlert; }
     public boolean isNotifyStaff() { return notifyStaff; }
     public boolean isLogToConsole() { return logToConsole; }
+    public AuditLogger getAuditLogger() { return auditLogger; }
     public boolean isBroadcastExtreme() { return broadcastExtreme; }
-    public boolean isConsistencyCheck() { return consistencyCheck; }
-    public double getVarianceThreshold() { return varianceThreshold; }
-    public int getMinimumClicksForAnalysis() { return minimumClicksForAnalysis; }
-    public boolean isPatternDetection() { return patternDetection; }
-    public boolean isBurstDetection() { return burstDetection; }
-    public boolean isAnalyzeSeparately() { return analyzeSeparately; }
+    public boolean isConsistencyCheck() { return detectionEngine.getSettings().isConsistencyCheck(); }
+    public double getVarianceThreshold() { return detectionEngine.getSettings().getVarianceThreshold(); }
+    public int getMinimumClicksForAnalysis() { return detectionEngine.getSettings().getMinimumClicksForAnalysis(); }
+    public boolean isPatternDetection() { return detectionEngine.getSettings().isPatternDetection(); }
+    public boolean isBurstDetection() { return detectionEngine.getSettings().isBurstDetection(); }
+    public boolean isAnalyzeSeparately() { return detectionEngine.getSettings().isAnalyzeSeparately(); }
     public boolean isAsyncProcessing() { return asyncProcessing; }
+    public DetectorPipeline getDetectorPipeline() { return detectionEngine.getPipeline(); }
+    public DetectionEngine getDetectionEngine() { return detectionEngine; }
     public int getActivePlayerCount() { return playerData.size(); }
+    public AlertRecipientService getAlertRecipients() { return alertRecipients; }
+    public PerformanceMetrics getMetrics() { return metrics; }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package dev.abdelrahmanmoharram.cpswatchdog.manager;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.PeriodicityTracker;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.PeriodicityDetector;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scores batches of click intervals for periodicity on a background thread.
+ *
+ * The thread that analyzes a player takes a batch from their tracker once enough new intervals
+ * have arrived and queues it here; the worker writes the score back into the tracker, where the
+ * periodicity detector picks it up on the player's next analysis. When the queue is full, or the
+ * analyzer has been shut down, the batch is cancelled so the tracker can hand out a new one.
+ */
+public class PeriodicityAnalyzer {
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private final int maxLag;
+    private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong scoredBatches = new AtomicLong();
+    private final AtomicLong droppedBatches = new AtomicLong();
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * @param maxLag Longest delay sequence (in clicks) to look for
+     */
+    public PeriodicityAnalyzer(int maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "CPSWatchdog-Periodicity");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void shutdown() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+
+        // Player data outlives a reload, so its trackers must be able to hand out batches again
+        Batch batch;
+        while ((batch = queue.poll()) != null) {
+            batch.tracker.cancel();
+        }
+    }
+
+    /**
+     * Queue a batch from the tracker if one is due. Must be called by the thread that records the tracker's clicks.
+     */
+    public void offer(PeriodicityTracker tracker) {
+        if (tracker == null || !running) {
+            return;
+        }
+        double[] intervals = tracker.takeBatch();
+        if (intervals == null) {
+            return;
+        }
+
+        Batch batch = new Batch(tracker, intervals);
+        if (!queue.offer(batch)) {
+            tracker.cancel();
+            droppedBatches.incrementAndGet();
+        } else if (!running && queue.remove(batch)) {
+            // Shut down while queueing, nothing will score it
+            tracker.cancel();
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Batch batch;
+            try {
+                batch = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            // Scoring isn't interruptible, a batch that was taken is always completed or cancelled
+            try {
+                batch.tracker.complete(PeriodicityDetector.score(batch.intervals, maxLag));
+                scoredBatches.incrementAndGet();
+            } catch (RuntimeException e) {
+                batch.tracker.cancel();
+            }
+        }
+    }
+
+    public long getScoredBatches() { return scoredBatches.get(); }
+    public long getDroppedBatches() { return droppedBatches.get(); }
+
+    private static final class Batch {
+        final PeriodicityTracker tracker;
+        final double[] intervals;
+
+        Batch(PeriodicityTracker tracker, double[] intervals) {
+            this.tracker = tracker;
+            this.intervals = intervals;
+        }
+    }
+}
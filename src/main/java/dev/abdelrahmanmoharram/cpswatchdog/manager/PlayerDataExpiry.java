@@ -0,0 +1,277 @@
+package dev.abdelrahmanmoharram.cpswatchdog.manager;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+import dev.abdelrahmanmoharram.cpswatchdog.metrics.PerformanceMetrics;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Expires inactive player data with a timing wheel instead of sweeping the whole map.
+ *
+ * Each tracked player sits in the wheel slot of their expected expiry time. Clicks do not
+ * move entries; they only update the player's last activity. When a slot comes due its
+ * entries are checked once: players who clicked in the meantime are re-inserted at their
+ * new expiry time and the rest are evicted, so each advance only touches the entries that
+ * are due. Players who quit get a second entry that evicts them after a short grace period
+ * unless they click again.
+ *
+ * The wheel is owned by an async timer. Other threads only hand new entries over through
+ * a lock-free queue. Entries the timer finds due are passed to the main thread in one batch,
+ * which checks their activity again before removing the data, so a click can't land between
+ * the check and the removal.
+ */
+public class PlayerDataExpiry {
+    private static final int WHEEL_SIZE = 512;
+
+    private final Plugin plugin;
+    private final CPSManager manager;
+    private final Owner owner;
+    private final long tickMillis;
+    private final long sessionTimeout;
+    private final long quitGracePeriod;
+
+    private final Queue<Entry> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicLong evicted = new AtomicLong();
+    private BukkitTask timerTask;
+
+    // Timer thread state
+    private final Entry[] wheel = new Entry[WHEEL_SIZE];
+    private final List<Entry> expiring = new ArrayList<>(); // Found due in this advance
+    private long currentTick = -1; // Next tick to process
+    private int size;
+
+    /**
+     * @param tickMillis Resolution of the wheel, expiry happens at most this late
+     * @param sessionTimeout Inactivity after which a player's data expires
+     * @param quitGracePeriod Time after a quit before the player's data expires
+     */
+    public PlayerDataExpiry(Plugin plugin, CPSManager manager, long tickMillis, long sessionTimeout, long quitGracePeriod) {
+        this(plugin, manager, new Owner() {
+            @Override
+            public boolean isTracked(UUID playerUUID, PlayerCPSData data) {
+                return manager.isTracked(playerUUID, data);
+            }
+
+            @Override
+            public boolean isBusy(UUID playerUUID, PlayerCPSData data) {
+                return manager.isAnalyzing(playerUUID, data);
+            }
+
+            @Override
+            public boolean expire(UUID playerUUID, PlayerCPSData data) {
+                return manager.expirePlayerData(playerUUID, data);
+            }
+
+            @Override
+            public void runOnMainThread(Runnable task) {
+                Bukkit.getScheduler().runTask(plugin, task);
+            }
+        }, tickMillis, sessionTimeout, quitGracePeriod);
+    }
+
+    /**
+     * Wheel without a timer, turned by calling {@link #advance(long)}
+     */
+    PlayerDataExpiry(Owner owner, long tickMillis, long sessionTimeout, long quitGracePeriod) {
+        this(null, null, owner, tickMillis, sessionTimeout, quitGracePeriod);
+    }
+
+    private PlayerDataExpiry(Plugin plugin, CPSManager manager, Owner owner, long tickMillis, long sessionTimeout,
+                             long quitGracePeriod) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.owner = owner;
+        this.tickMillis = Math.max(50, tickMillis);
+        this.sessionTimeout = sessionTimeout;
+        this.quitGracePeriod = quitGracePeriod;
+    }
+
+    public void start() {
+        long periodTicks = Math.max(1, tickMillis / 50); // Convert ms to ticks
+        timerTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                PerformanceMetrics metrics = manager.getMetrics();
+                long started = metrics.start();
+                advance(System.currentTimeMillis());
+                metrics.stop(PerformanceMetrics.Stage.CLEANUP, started);
+            }
+        }.runTaskTimerAsynchronously(plugin, periodTicks, periodTicks);
+    }
+
+    public void shutdown() {
+        if (timerTask != null) {
+            timerTask.cancel();
+            timerTask = null;
+        }
+        incoming.clear();
+    }
+
+    /**
+     * Start tracking newly created player data. Safe to call from any thread.
+     */
+    public void track(UUID playerUUID, PlayerCPSData data) {
+        incoming.offer(new Entry(playerUUID, data, false, 0L));
+    }
+
+    /**
+     * Expire a player's data shortly after they quit unless they click again before then.
+     * Safe to call from any thread.
+     */
+    public void demote(UUID playerUUID, PlayerCPSData data, long quitTime) {
+        incoming.offer(new Entry(playerUUID, data, true, quitTime));
+    }
+
+    // Process every slot up to now. Timer thread only.
+    void advance(long now) {
+        long targetTick = now / tickMillis;
+        if (currentTick < 0) {
+            currentTick = targetTick;
+        }
+
+        Entry entry;
+        while ((entry = incoming.poll()) != null) {
+            schedule(entry, deadlineOf(entry));
+        }
+
+        while (currentTick <= targetTick) {
+            int slot = (int) (currentTick % WHEEL_SIZE);
+            Entry due = wheel[slot];
+            wheel[slot] = null;
+            currentTick++;
+
+            while (due != null) {
+                Entry next = due.next;
+                due.next = null;
+                size--;
+                fire(due, now);
+                due = next;
+            }
+        }
+
+        if (!expiring.isEmpty()) {
+            List<Entry> batch = new ArrayList<>(expiring);
+            expiring.clear();
+            owner.runOnMainThread(() -> expire(batch, now));
+        }
+    }
+
+    private void fire(Entry entry, long now) {
+        if (entry.rounds > 0) {
+            // Back into the slot just processed, which comes round again in WHEEL_SIZE ticks
+            entry.rounds--;
+            insert(entry, (int) ((currentTick - 1) % WHEEL_SIZE));
+            return;
+        }
+
+        // Stale entry for data that was already removed or replaced
+        if (!owner.isTracked(entry.playerUUID, entry.data)) {
+            return;
+        }
+
+        if (isDue(entry, now)) {
+            expiring.add(entry);
+            return;
+        }
+
+        long lastActivity = entry.data.getLastActivity();
+        if (entry.demoted) {
+            // Clicking after the quit means the player came back; their regular entry takes over
+            if (lastActivity <= entry.quitTime) {
+                schedule(entry, entry.quitTime + quitGracePeriod);
+            }
+            return;
+        }
+
+        // Clicked since the entry was placed; move it to the new expiry time
+        schedule(entry, lastActivity + sessionTimeout);
+    }
+
+    // Remove the data of entries the timer found due. Main thread only.
+    private void expire(List<Entry> batch, long now) {
+        for (Entry entry : batch) {
+            if (!owner.isTracked(entry.playerUUID, entry.data)) {
+                continue;
+            }
+            if (!isDue(entry, now) || owner.isBusy(entry.playerUUID, entry.data)) {
+                // Clicked or still being analyzed since the timer checked; back onto the wheel
+                incoming.offer(entry);
+            } else if (owner.expire(entry.playerUUID, entry.data)) {
+                evicted.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean isDue(Entry entry, long now) {
+        long lastActivity = entry.data.getLastActivity();
+        if (entry.demoted) {
+            return lastActivity <= entry.quitTime && now >= entry.quitTime + quitGracePeriod;
+        }
+        return now >= lastActivity + sessionTimeout;
+    }
+
+    private long deadlineOf(Entry entry) {
+        return entry.demoted ? entry.quitTime + quitGracePeriod : entry.data.getLastActivity() + sessionTimeout;
+    }
+
+    private void schedule(Entry entry, long deadline) {
+        // Overdue entries go into the next slot to be processed
+        long tick = Math.max(deadline / tickMillis, currentTick);
+        entry.rounds = (int) ((tick - currentTick) / WHEEL_SIZE);
+        insert(entry, (int) (tick % WHEEL_SIZE));
+    }
+
+    private void insert(Entry entry, int slot) {
+        entry.next = wheel[slot];
+        wheel[slot] = entry;
+        size++;
+    }
+
+    public long getEvictedCount() { return evicted.get(); }
+    public int getScheduledCount() { return size + incoming.size(); }
+
+    /**
+     * The player data map the wheel expires entries from
+     */
+    interface Owner {
+        boolean isTracked(UUID playerUUID, PlayerCPSData data);
+
+        /**
+         * @return true while another thread may still write to the data. Main thread only.
+         */
+        boolean isBusy(UUID playerUUID, PlayerCPSData data);
+
+        /**
+         * Remove the data. Main thread only.
+         * @return true if the data was removed
+         */
+        boolean expire(UUID playerUUID, PlayerCPSData data);
+
+        void runOnMainThread(Runnable task);
+    }
+
+    private static final class Entry {
+        final UUID playerUUID;
+        final PlayerCPSData data;
+        final boolean demoted;
+        final long quitTime;
+        int rounds;
+        Entry next;
+
+        Entry(UUID playerUUID, PlayerCPSData data, boolean demoted, long quitTime) {
+            this.playerUUID = playerUUID;
+            this.data = data;
+            this.demoted = demoted;
+            this.quitTime = quitTime;
+        }
+    }
+}
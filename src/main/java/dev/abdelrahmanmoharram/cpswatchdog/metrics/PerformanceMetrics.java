@@ -0,0 +1,213 @@
+package dev.abdelrahmanmoharram.cpswatchdog.metrics;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead instrumentation of the plugin's own work: a latency histogram per stage and
+ * striped event counters. Recording is lock-free and allocation-free, so it is safe on the
+ * click path and from analysis workers; when disabled the timers don't even read the clock.
+ */
+public class PerformanceMetrics {
+
+    public enum Stage {
+        RECORD("Click record"),
+        ANALYSIS("Analysis"),
+        ALERT("Alert"),
+        CLEANUP("Cleanup");
+
+        private final String displayName;
+
+        Stage(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    private final LongAdder[] clicks = new LongAdder[ClickType.values().length];
+    // Indexed by severity: 0 = high, 1 = extreme
+    private final LongAdder[] violations = {new LongAdder(), new LongAdder()};
+    private final LongAdder[] staffAlerts = {new LongAdder(), new LongAdder()};
+    private final LongAdder expiredPlayers = new LongAdder();
+    private final long startTime = System.nanoTime();
+    private volatile boolean enabled = true;
+
+    public PerformanceMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < clicks.length; i++) {
+            clicks[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return Start time to pass to {@link #stop}, or 0 if metrics are disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Record the time since a {@link #start} (or any System.nanoTime reading) for a stage
+     */
+    public void stop(Stage stage, long started) {
+        if (started != 0L && enabled) {
+            histograms[stage.ordinal()].record(System.nanoTime() - started);
+        }
+    }
+
+    public void countClick(ClickType clickType) {
+        if (enabled) {
+            clicks[clickType.ordinal()].increment();
+        }
+    }
+
+    public void countViolation(boolean extreme) {
+        if (enabled) {
+            violations[extreme ? 1 : 0].increment();
+        }
+    }
+
+    public void countStaffAlert(boolean extreme) {
+        if (enabled) {
+            staffAlerts[extreme ? 1 : 0].increment();
+        }
+    }
+
+    public void countExpiredPlayer() {
+        if (enabled) {
+            expiredPlayers.increment();
+        }
+    }
+
+    /**
+     * @return Cumulative values since the plugin started
+     */
+    public Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot(System.nanoTime() - startTime);
+        for (Stage stage : STAGES) {
+            LatencyHistogram histogram = histograms[stage.ordinal()];
+            long[] buckets = new long[LatencyHistogram.BUCKET_COUNT];
+            histogram.copyBuckets(buckets);
+            snapshot.buckets.put(stage, buckets);
+            snapshot.totalNanos.put(stage, histogram.getTotalNanos());
+        }
+        snapshot.violations = getViolationCount(false) + getViolationCount(true);
+        snapshot.staffAlerts = getStaffAlertCount(false) + getStaffAlertCount(true);
+        snapshot.expiredPlayers = expiredPlayers.sum();
+        return snapshot;
+    }
+
+    // Cumulative reads for exporters, safe from any thread
+
+    public LatencyHistogram getHistogram(Stage stage) { return histograms[stage.ordinal()]; }
+    public long getClickCount(ClickType clickType) { return clicks[clickType.ordinal()].sum(); }
+    public long getViolationCount(boolean extreme) { return violations[extreme ? 1 : 0].sum(); }
+    public long getStaffAlertCount(boolean extreme) { return staffAlerts[extreme ? 1 : 0].sum(); }
+    public long getExpiredPlayerCount() { return expiredPlayers.sum(); }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    /**
+     * Counts and latency buckets at one point in time, or the difference between two
+     */
+    public static final class Snapshot {
+        private final long uptimeNanos;
+        private final Map<Stage, long[]> buckets = new EnumMap<>(Stage.class);
+        private final Map<Stage, Long> totalNanos = new EnumMap<>(Stage.class);
+        private long violations;
+        private long staffAlerts;
+        private long expiredPlayers;
+
+        private Snapshot(long uptimeNanos) {
+            this.uptimeNanos = uptimeNanos;
+        }
+
+        /**
+         * @return What happened between an earlier snapshot and this one
+         */
+        public Snapshot since(Snapshot earlier) {
+            Snapshot delta = new Snapshot(uptimeNanos - earlier.uptimeNanos);
+            for (Stage stage : STAGES) {
+                long[] now = buckets.get(stage);
+                long[] before = earlier.buckets.get(stage);
+                long[] difference = new long[now.length];
+                for (int i = 0; i < now.length; i++) {
+                    difference[i] = now[i] - before[i];
+                }
+                delta.buckets.put(stage, difference);
+                delta.totalNanos.put(stage, totalNanos.get(stage) - earlier.totalNanos.get(stage));
+            }
+            delta.violations = violations - earlier.violations;
+            delta.staffAlerts = staffAlerts - earlier.staffAlerts;
+            delta.expiredPlayers = expiredPlayers - earlier.expiredPlayers;
+            return delta;
+        }
+
+        public long getCount(Stage stage) {
+            long count = 0;
+            for (long bucket : buckets.get(stage)) {
+                count += bucket;
+            }
+            return count;
+        }
+
+        /**
+         * @return Events per second over the snapshot's time span
+         */
+        public double getRate(long count) {
+            return uptimeNanos > 0 ? count * 1e9 / uptimeNanos : 0.0;
+        }
+
+        public double getMeanNanos(Stage stage) {
+            long count = getCount(stage);
+            return count > 0 ? (double) totalNanos.get(stage) / count : 0.0;
+        }
+
+        /**
+         * @param percentile Percentile between 0 and 100
+         * @return Upper bound of the bucket holding the percentile, in nanoseconds
+         */
+        public long getPercentileNanos(Stage stage, double percentile) {
+            long[] counts = buckets.get(stage);
+            long count = getCount(stage);
+            if (count == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return LatencyHistogram.upperBoundOf(i);
+                }
+            }
+            return LatencyHistogram.upperBoundOf(counts.length - 1);
+        }
+
+        /**
+         * @return Count per bucket, indexed like {@link LatencyHistogram#upperBoundOf}
+         */
+        public long[] getBuckets(Stage stage) {
+            return buckets.get(stage).clone();
+        }
+
+        public long getTotalNanos(Stage stage) { return totalNanos.get(stage); }
+        public long getUptimeNanos() { return uptimeNanos; }
+        public long getViolations() { return violations; }
+        public long getStaffAlerts() { return staffAlerts; }
+        public long getExpiredPlayers() { return expiredPlayers; }
+    }
+}
@@ -0,0 +1,194 @@
+package dev.abdelrahmanmoharram.cpswatchdog.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+import dev.abdelrahmanmoharram.cpswatchdog.manager.CPSManager;
+import dev.abdelrahmanmoharram.cpswatchdog.services.AuditLogger;
+import dev.abdelrahmanmoharram.cpswatchdog.services.CooldownService;
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the plugin's metrics in the Prometheus text format on an embedded HTTP server.
+ *
+ * Every value is read from lock-free counters, volatile fields or concurrent maps, so a
+ * scrape runs entirely on the exporter's own thread and never waits for the main thread.
+ * Latency histograms are exported with fixed bucket bounds in seconds; each bound counts the
+ * internal histogram buckets that lie entirely below it.
+ */
+public class PrometheusExporter {
+    public static final String PATH = "/metrics";
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String[] BUCKET_BOUNDS = {
+            "0.000001", "0.0000025", "0.000005", "0.00001", "0.000025", "0.00005",
+            "0.0001", "0.00025", "0.0005", "0.001", "0.0025", "0.005",
+            "0.01", "0.025", "0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10"
+    };
+    private static final long[] BUCKET_BOUND_NANOS = new long[BUCKET_BOUNDS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            BUCKET_BOUND_NANOS[i] = Math.round(Double.parseDouble(BUCKET_BOUNDS[i]) * 1e9);
+        }
+    }
+
+    private final Plugin plugin;
+    private final CPSManager manager;
+    private final CooldownService cooldowns;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PrometheusExporter(Plugin plugin, CPSManager manager, CooldownService cooldowns) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.cooldowns = cooldowns;
+    }
+
+    /**
+     * Start serving on http://bind:port/metrics
+     * @throws IOException If the address can't be bound
+     */
+    public void start(String bind, int port) throws IOException {
+        stop();
+
+        server = HttpServer.create(new InetSocketAddress(bind, port), 0);
+        server.createContext(PATH, this::handle);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CPSWatchdog-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        plugin.getLogger().info("Serving metrics on http://" + bind + ":" + port + PATH);
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @return All metrics in the Prometheus text exposition format
+     */
+    public String render() {
+        PerformanceMetrics metrics = manager.getMetrics();
+        StringBuilder out = new StringBuilder(8192);
+
+        header(out, "cpswatchdog_clicks_total", "counter", "Clicks recorded");
+        for (ClickType clickType : ClickType.values()) {
+            sample(out, "cpswatchdog_clicks_total", "type", clickType.getName(), metrics.getClickCount(clickType));
+        }
+
+        header(out, "cpswatchdog_analyses_total", "counter", "Click analyses run");
+        sample(out, "cpswatchdog_analyses_total", null, null, metrics.getHistogram(PerformanceMetrics.Stage.ANALYSIS).getCount());
+
+        header(out, "cpswatchdog_violations_total", "counter", "Suspicious verdicts by severity");
+        sample(out, "cpswatchdog_violations_total", "severity", "high", metrics.getViolationCount(false));
+        sample(out, "cpswatchdog_violations_total", "severity", "extreme", metrics.getViolationCount(true));
+
+        header(out, "cpswatchdog_staff_alerts_total", "counter", "Alerts sent to staff by severity");
+        sample(out, "cpswatchdog_staff_alerts_total", "severity", "high", metrics.getStaffAlertCount(false));
+        sample(out, "cpswatchdog_staff_alerts_total", "severity", "extreme", metrics.getStaffAlertCount(true));
+
+        header(out, "cpswatchdog_expired_players_total", "counter", "Player data removed after inactivity or quitting");
+        sample(out, "cpswatchdog_expired_players_total", null, null, metrics.getExpiredPlayerCount());
+
+        header(out, "cpswatchdog_tracked_players", "gauge", "Players with click data in memory");
+        sample(out, "cpswatchdog_tracked_players", null, null, manager.getActivePlayerCount());
+
+        header(out, "cpswatchdog_cooldowns", "gauge", "Active command cooldowns by channel");
+        for (CooldownService.Channel channel : cooldowns.getChannels()) {
+            sample(out, "cpswatchdog_cooldowns", "channel", channel.getName(), channel.getActiveCooldownCount());
+        }
+
+        AuditLogger auditLogger = manager.getAuditLogger();
+        header(out, "cpswatchdog_audit_queue_size", "gauge", "Audit log entries waiting to be written");
+        sample(out, "cpswatchdog_audit_queue_size", null, null, auditLogger.getQueuedCount());
+        header(out, "cpswatchdog_audit_dropped_total", "counter", "Audit log entries dropped because the queue was full");
+        sample(out, "cpswatchdog_audit_dropped_total", null, null, auditLogger.getDroppedCount());
+
+        header(out, "cpswatchdog_stage_duration_seconds", "histogram", "Time spent in the plugin's hot paths");
+        long[] buckets = new long[LatencyHistogram.BUCKET_COUNT];
+        for (PerformanceMetrics.Stage stage : PerformanceMetrics.Stage.values()) {
+            LatencyHistogram histogram = metrics.getHistogram(stage);
+            histogram.copyBuckets(buckets);
+            histogram(out, stage.name().toLowerCase(), buckets, histogram.getTotalNanos());
+        }
+
+        return out.toString();
+    }
+
+    private static void histogram(StringBuilder out, String stage, long[] buckets, long totalNanos) {
+        long cumulative = 0;
+        int bucket = 0;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            while (bucket < buckets.length && LatencyHistogram.upperBoundOf(bucket) <= BUCKET_BOUND_NANOS[i]) {
+                cumulative += buckets[bucket++];
+            }
+            out.append("cpswatchdog_stage_duration_seconds_bucket{stage=\"").append(stage)
+                    .append("\",le=\"").append(BUCKET_BOUNDS[i]).append("\"} ").append(cumulative).append('\n');
+        }
+        while (bucket < buckets.length) {
+            cumulative += buckets[bucket++];
+        }
+
+        // _count matches the +Inf bucket even while other threads keep recording
+        out.append("cpswatchdog_stage_duration_seconds_bucket{stage=\"").append(stage)
+                .append("\",le=\"+Inf\"} ").append(cumulative).append('\n');
+        out.append("cpswatchdog_stage_duration_seconds_sum{stage=\"").append(stage).append("\"} ")
+                .append(totalNanos / 1e9).append('\n');
+        out.append("cpswatchdog_stage_duration_seconds_count{stage=\"").append(stage).append("\"} ")
+                .append(cumulative).append('\n');
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String label, String value, long sample) {
+        out.append(name);
+        if (label != null) {
+            out.append('{').append(label).append("=\"").append(escape(value)).append("\"}");
+        }
+        out.append(' ').append(sample).append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,73 @@
+package dev.abdelrahmanmoharram.cpswatchdog.replay;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A recorded stream of timestamped clicks from one or more players, kept in flat arrays
+ * so replaying it does not allocate per click
+ */
+public class ClickStream {
+    private static final ClickType[] CLICK_TYPES = ClickType.values();
+
+    private final List<String> players = new ArrayList<>();
+    private final Map<String, Integer> playerIndex = new HashMap<>();
+    private int[] clickPlayers = new int[1024];
+    private long[] clickTimes = new long[1024];
+    private long[] clickNanoTimes = new long[1024];
+    private byte[] clickTypes = new byte[1024];
+    private int size;
+
+    /**
+     * Append a click that only has a millisecond timestamp
+     * @param player Name of the clicking player
+     * @param time Click time in milliseconds
+     * @param clickType The type of click
+     */
+    public void add(String player, long time, ClickType clickType) {
+        add(player, time, time * 1_000_000L, clickType);
+    }
+
+    /**
+     * Append a click
+     * @param player Name of the clicking player
+     * @param time Click time in milliseconds
+     * @param nanoTime Click time in nanoseconds, on the same clock for all of a player's clicks
+     * @param clickType The type of click
+     */
+    public void add(String player, long time, long nanoTime, ClickType clickType) {
+        Integer index = playerIndex.get(player);
+        if (index == null) {
+            index = players.size();
+            players.add(player);
+            playerIndex.put(player, index);
+        }
+
+        if (size == clickTimes.length) {
+            int capacity = size * 2;
+            clickPlayers = Arrays.copyOf(clickPlayers, capacity);
+            clickTimes = Arrays.copyOf(clickTimes, capacity);
+            clickNanoTimes = Arrays.copyOf(clickNanoTimes, capacity);
+            clickTypes = Arrays.copyOf(clickTypes, capacity);
+        }
+
+        clickPlayers[size] = index;
+        clickTimes[size] = time;
+        clickNanoTimes[size] = nanoTime;
+        clickTypes[size] = (byte) clickType.ordinal();
+        size++;
+    }
+
+    public int size() { return size; }
+    public int getPlayerCount() { return players.size(); }
+    public String getPlayerName(int player) { return players.get(player); }
+    public int getPlayer(int click) { return clickPlayers[click]; }
+    public long getTime(int click) { return clickTimes[click]; }
+    public long getNanoTime(int click) { return clickNanoTimes[click]; }
+    public ClickType getClickType(int click) { return CLICK_TYPES[clickTypes[click]]; }
+}
@@ -0,0 +1,125 @@
+package dev.abdelrahmanmoharram.cpswatchdog.replay;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickTrace;
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads click streams for replay.
+ *
+ * Two formats are supported:
+ * - Click trace files written by the plugin (*.trace), replayed as one player named after the file.
+ * - Text files with one click per line: "&lt;time_ms&gt; &lt;player&gt; &lt;L|R&gt;", separated by
+ *   spaces, tabs or commas. Times are milliseconds (fractions allowed) and must not go backwards
+ *   for a player. Blank lines and lines starting with # are ignored.
+ *
+ * Example:
+ * <pre>
+ * # time_ms player type
+ * 0 Steve L
+ * 83.5 Steve L
+ * 90 Alex R
+ * </pre>
+ */
+public final class ClickStreamReader {
+
+    private ClickStreamReader() {
+    }
+
+    public static ClickStream read(File file) throws IOException {
+        ClickStream stream = new ClickStream();
+        if (file.getName().endsWith(".trace")) {
+            readTrace(file, stream);
+        } else {
+            readText(file, stream);
+        }
+        return stream;
+    }
+
+    private static void readText(File file, ClickStream stream) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] parts = line.split("[\\s,]+");
+                if (parts.length != 3) {
+                    throw new IOException(file.getName() + ":" + lineNumber + ": expected <time_ms> <player> <L|R>");
+                }
+
+                try {
+                    // Fractions are kept in the nanosecond time the interval detectors use
+                    double millis = Double.parseDouble(parts[0]);
+                    stream.add(parts[1], Math.round(millis), Math.round(millis * 1_000_000.0), parseClickType(parts[2]));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(file.getName() + ":" + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static ClickType parseClickType(String value) {
+        if (value.equalsIgnoreCase("L")) {
+            return ClickType.LEFT;
+        }
+        if (value.equalsIgnoreCase("R")) {
+            return ClickType.RIGHT;
+        }
+        ClickType clickType = ClickType.fromString(value);
+        if (clickType == null) {
+            throw new IllegalArgumentException("unknown click type '" + value + "'");
+        }
+        return clickType;
+    }
+
+    private static void readTrace(File file, ClickStream stream) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // Read the whole file
+            }
+            buffer.flip();
+
+            if (buffer.remaining() < ClickTrace.HEADER_SIZE || buffer.getInt(0) != ClickTrace.MAGIC) {
+                throw new IOException(file.getName() + " is not a click trace");
+            }
+
+            int capacity = buffer.getInt(ClickTrace.CAPACITY_OFFSET);
+            long written = buffer.getLong(ClickTrace.WRITTEN_OFFSET);
+            long startMillis = buffer.getLong(ClickTrace.START_MILLIS_OFFSET);
+            long startNanos = buffer.getLong(ClickTrace.START_NANOS_OFFSET);
+            if (capacity <= 0 || ClickTrace.HEADER_SIZE + (long) capacity * ClickTrace.RECORD_SIZE > buffer.limit()) {
+                throw new IOException(file.getName() + " is truncated");
+            }
+
+            // The ring holds the last min(written, capacity) clicks, oldest at written % capacity once wrapped
+            int count = (int) Math.min(written, capacity);
+            int first = written > capacity ? (int) (written % capacity) : 0;
+            String player = file.getName().substring(0, file.getName().length() - ".trace".length());
+            ClickType[] clickTypes = ClickType.values();
+
+            for (int i = 0; i < count; i++) {
+                int position = ClickTrace.HEADER_SIZE + ((first + i) % capacity) * ClickTrace.RECORD_SIZE;
+                long nanoTime = buffer.getLong(position);
+                int type = buffer.get(position + 8);
+                if (type < 0 || type >= clickTypes.length) {
+                    throw new IOException(file.getName() + ": invalid click type at record " + i);
+                }
+                stream.add(player, startMillis + (nanoTime - startNanos) / 1_000_000L, nanoTime, clickTypes[type]);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package dev.abdelrahmanmoharram.cpswatchdog.replay;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PeriodicityTracker;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionEngine;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionVerdict;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.PeriodicityDetector;
+
+/**
+ * Feeds a recorded click stream through the detection engine the way CPSManager does for
+ * live clicks: each click is added to the player's data with its recorded timestamp and
+ * analyzed right away. Nothing here needs a running server.
+ */
+public class ReplayEngine {
+    private final DetectionEngine engine;
+    private final int violationsForAlert;
+    private boolean keepVerdicts;
+
+    /**
+     * @param violationsForAlert Violation count at which the plugin would alert staff
+     */
+    public ReplayEngine(DetectionEngine engine, int violationsForAlert) {
+        this.engine = engine;
+        this.violationsForAlert = violationsForAlert;
+    }
+
+    /**
+     * Keep every suspicious verdict so the report can list them
+     */
+    public void setKeepVerdicts(boolean keepVerdicts) {
+        this.keepVerdicts = keepVerdicts;
+    }
+
+    /**
+     * Replay the whole stream with fresh player data
+     */
+    public ReplayReport run(ClickStream stream) {
+        ReplayReport report = new ReplayReport(stream, violationsForAlert);
+        report.setKeepVerdicts(keepVerdicts);
+        PlayerCPSData[] players = new PlayerCPSData[stream.getPlayerCount()];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = engine.createPlayerData(stream.getPlayerName(i));
+        }
+
+        long[] latencies = new long[stream.size()];
+        long started = System.nanoTime();
+
+        for (int click = 0; click < stream.size(); click++) {
+            int player = stream.getPlayer(click);
+            PlayerCPSData data = players[player];
+            ClickType clickType = stream.getClickType(click);
+
+            long clickStart = System.nanoTime();
+            data.addClick(clickType, stream.getTime(click), stream.getNanoTime(click));
+            DetectionVerdict verdict = engine.analyze(data, clickType);
+            latencies[click] = System.nanoTime() - clickStart;
+            scorePeriodicity(data.getPeriodicityTracker(clickType));
+
+            if (verdict != null && verdict.isSuspicious()) {
+                report.recordVerdict(player, stream.getTime(click), verdict);
+            }
+        }
+
+        report.finish(System.nanoTime() - started, latencies);
+        return report;
+    }
+
+    /**
+     * Score a due interval batch right away. The plugin does this on a background thread, so it
+     * isn't part of the click latency, and the score is judged on the next analysis either way.
+     */
+    private void scorePeriodicity(PeriodicityTracker tracker) {
+        if (tracker == null) {
+            return;
+        }
+        double[] intervals = tracker.takeBatch();
+        if (intervals != null) {
+            tracker.complete(PeriodicityDetector.score(intervals, engine.getSettings().getPeriodicityMaxLag()));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package dev.abdelrahmanmoharram.cpswatchdog.replay;
+
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionEngine;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionSettings;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Command line entry point for replaying click streams offline.
+ *
+ * Usage: java -cp CPSWatchdog.jar:spigot-api.jar dev.abdelrahmanmoharram.cpswatchdog.replay.ReplayMain
+ *        &lt;stream file&gt; [config.yml] [--repeat N] [--verbose]
+ *
+ * Without a config file the defaults bundled in the plugin jar are used. --repeat replays the
+ * stream N times and reports the last run, so the numbers are taken after the JIT has warmed up.
+ */
+public final class ReplayMain {
+
+    private ReplayMain() {
+    }
+
+    public static void main(String[] args) {
+        File streamFile = null;
+        File configFile = null;
+        int repeat = 1;
+        boolean verbose = false;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--repeat") && i + 1 < args.length) {
+                try {
+                    repeat = Math.max(1, Integer.parseInt(args[++i]));
+                } catch (NumberFormatException e) {
+                    usage("Invalid repeat count: " + args[i]);
+                    return;
+                }
+            } else if (arg.equals("--verbose")) {
+                verbose = true;
+            } else if (streamFile == null) {
+                streamFile = new File(arg);
+            } else if (configFile == null) {
+                configFile = new File(arg);
+            } else {
+                usage("Unexpected argument: " + arg);
+                return;
+            }
+        }
+
+        if (streamFile == null) {
+            usage(null);
+            return;
+        }
+
+        try {
+            YamlConfiguration config = loadConfig(configFile);
+            DetectionEngine engine = new DetectionEngine(DetectionSettings.load(config));
+            ReplayEngine replay = new ReplayEngine(engine, config.getInt("thresholds.violations_for_alert", 5));
+            ClickStream stream = ClickStreamReader.read(streamFile);
+
+            // Warm-up runs, only the last run is reported
+            for (int i = 1; i < repeat; i++) {
+                replay.run(stream);
+            }
+
+            replay.setKeepVerdicts(verbose);
+            replay.run(stream).print(System.out);
+        } catch (IOException e) {
+            System.err.println("Replay failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static YamlConfiguration loadConfig(File configFile) throws IOException {
+        if (configFile != null) {
+            if (!configFile.isFile()) {
+                throw new IOException("Config file not found: " + configFile);
+            }
+            return YamlConfiguration.loadConfiguration(configFile);
+        }
+
+        InputStream in = ReplayMain.class.getResourceAsStream("/config.yml");
+        if (in == null) {
+            throw new IOException("No config file given and no bundled config.yml found");
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return YamlConfiguration.loadConfiguration(reader);
+        }
+    }
+
+    private static void usage(String error) {
+        if (error != null) {
+            System.err.println(error);
+        }
+        System.err.println("Usage: ReplayMain <stream file> [config.yml] [--repeat N] [--verbose]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,139 @@
+package dev.abdelrahmanmoharram.cpswatchdog.replay;
+
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionVerdict;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.ViolationReason;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Verdicts, throughput and per-click latency of one replay
+ */
+public class ReplayReport {
+    private static final ViolationReason[] REASONS = ViolationReason.values();
+
+    private final ClickStream stream;
+    private final int violationsForAlert;
+    private final PlayerResult[] players;
+    private final long[] reasonCounts = new long[REASONS.length];
+    private final List<String> verdictLines = new ArrayList<>();
+    private boolean keepVerdicts;
+
+    private long suspiciousVerdicts;
+    private long elapsedNanos;
+    private long[] sortedLatencies = new long[0];
+
+    ReplayReport(ClickStream stream, int violationsForAlert) {
+        this.stream = stream;
+        this.violationsForAlert = violationsForAlert;
+        this.players = new PlayerResult[stream.getPlayerCount()];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new PlayerResult();
+        }
+    }
+
+    void setKeepVerdicts(boolean keepVerdicts) {
+        this.keepVerdicts = keepVerdicts;
+    }
+
+    void recordVerdict(int player, long time, DetectionVerdict verdict) {
+        suspiciousVerdicts++;
+        for (ViolationReason reason : REASONS) {
+            if (verdict.hasReason(reason)) {
+                reasonCounts[reason.ordinal()]++;
+            }
+        }
+
+        PlayerResult result = players[player];
+        if (result.flaggedClicks == 0) {
+            result.firstFlagTime = time;
+        }
+        result.flaggedClicks++;
+        result.peakCPS = Math.max(result.peakCPS, verdict.getCurrentCPS());
+        result.maxViolations = Math.max(result.maxViolations, verdict.getViolationCount());
+        if (verdict.isExtreme()) {
+            result.extremeClicks++;
+        }
+        if (verdict.getViolationCount() >= violationsForAlert) {
+            result.alerts++;
+        }
+
+        if (keepVerdicts) {
+            verdictLines.add(String.format("%d %s: %s (Violations: %d)",
+                    time, stream.getPlayerName(player), verdict.getReason(), verdict.getViolationCount()));
+        }
+    }
+
+    void finish(long elapsedNanos, long[] latencies) {
+        this.elapsedNanos = elapsedNanos;
+        this.sortedLatencies = latencies.clone();
+        Arrays.sort(sortedLatencies);
+    }
+
+    public double getClicksPerSecond() {
+        return elapsedNanos > 0 ? stream.size() * 1e9 / elapsedNanos : 0.0;
+    }
+
+    /**
+     * @param percentile Percentile between 0 and 100
+     * @return Latency of a single click (record + analyze) in nanoseconds
+     */
+    public long getLatencyPercentile(double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(sortedLatencies.length - 1, index))];
+    }
+
+    public long getSuspiciousVerdicts() { return suspiciousVerdicts; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public void print(PrintStream out) {
+        out.println("=== Replay ===");
+        out.printf("Clicks: %d, players: %d, time: %.1f ms%n", stream.size(), stream.getPlayerCount(), elapsedNanos / 1e6);
+        out.printf("Throughput: %.0f clicks/s%n", getClicksPerSecond());
+        out.printf("Latency per click (ns): p50=%d p90=%d p99=%d p99.9=%d max=%d%n",
+                getLatencyPercentile(50), getLatencyPercentile(90), getLatencyPercentile(99),
+                getLatencyPercentile(99.9), getLatencyPercentile(100));
+
+        out.println();
+        out.println("=== Verdicts ===");
+        out.println("Suspicious verdicts: " + suspiciousVerdicts);
+        for (ViolationReason reason : REASONS) {
+            out.println("  " + reason.name() + ": " + reasonCounts[reason.ordinal()]);
+        }
+
+        out.println();
+        out.println("=== Players ===");
+        for (int i = 0; i < players.length; i++) {
+            PlayerResult result = players[i];
+            if (result.flaggedClicks == 0) {
+                out.println(stream.getPlayerName(i) + ": clean");
+                continue;
+            }
+            out.printf("%s: %d flagged clicks (%d extreme), %d at alert level, peak %.1f CPS, max %d violations, first flagged at %d ms%n",
+                    stream.getPlayerName(i), result.flaggedClicks, result.extremeClicks, result.alerts,
+                    result.peakCPS, result.maxViolations, result.firstFlagTime);
+        }
+
+        if (keepVerdicts && !verdictLines.isEmpty()) {
+            out.println();
+            out.println("=== Verdict log ===");
+            for (String line : verdictLines) {
+                out.println(line);
+            }
+        }
+    }
+
+    private static final class PlayerResult {
+        long flaggedClicks;
+        long extremeClicks;
+        long alerts;
+        long firstFlagTime;
+        double peakCPS;
+        int maxViolations;
+    }
+}
@@ -0,0 +1,161 @@
+package dev.abdelrahmanmoharram.cpswatchdog.services;
+
+import org.bukkit.Sound;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces staff alerts per suspect and sends them in one batch per tick.
+ *
+ * The first alert for a suspect is sent in full and opens a coalescing window. Further
+ * alerts for that suspect inside the window are only counted (no message is rendered),
+ * and when the window closes staff get a single digest line with the count and peak CPS.
+ * Every message queued during a tick is delivered together on the next tick, with at most
+ * one alert sound per recipient.
+ */
+public class AlertDispatcher {
+    private final Plugin plugin;
+    private final AlertRecipientService recipients;
+    private final Map<String, AlertWindow> openWindows = new HashMap<>();
+    private final List<String> outbox = new ArrayList<>();
+    private Sound pendingSound;
+    private boolean pendingSoundExtreme;
+
+    private long windowMillis;
+    private String digestTemplate;
+    private BukkitTask flushTask;
+
+    public AlertDispatcher(Plugin plugin, AlertRecipientService recipients) {
+        this.plugin = plugin;
+        this.recipients = recipients;
+    }
+
+    /**
+     * @param windowMillis Coalescing window per suspect, 0 or less to send every alert
+     * @param digestTemplate Digest message with {player}, {count}, {peak} and {window} placeholders
+     */
+    public void configure(long windowMillis, String digestTemplate) {
+        this.windowMillis = windowMillis;
+        this.digestTemplate = digestTemplate;
+    }
+
+    public void start() {
+        flushTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                tick(System.currentTimeMillis());
+            }
+        }.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        openWindows.clear();
+        outbox.clear();
+        pendingSound = null;
+    }
+
+    /**
+     * Record an alert for a suspect
+     * @return true if the alert should be rendered and sent now, false if it was folded into the suspect's digest
+     */
+    public boolean record(String suspect, double cps, boolean extreme) {
+        if (windowMillis <= 0) {
+            return true;
+        }
+
+        AlertWindow window = openWindows.get(suspect);
+        if (window == null) {
+            openWindows.put(suspect, new AlertWindow(System.currentTimeMillis() + windowMillis, cps));
+            return true;
+        }
+
+        window.suppressed++;
+        window.peakCPS = Math.max(window.peakCPS, cps);
+        return false;
+    }
+
+    /**
+     * Queue a rendered alert for delivery on the next tick
+     * @param sound Sound to play for recipients, or null for none
+     * @param extreme Extreme alert sounds take priority over high ones in the same tick
+     */
+    public void enqueue(String message, Sound sound, boolean extreme) {
+        outbox.add(message);
+        if (sound != null && (pendingSound == null || (extreme && !pendingSoundExtreme))) {
+            pendingSound = sound;
+            pendingSoundExtreme = extreme;
+        }
+    }
+
+    private void tick(long now) {
+        if (!openWindows.isEmpty()) {
+            closeExpiredWindows(now);
+        }
+        if (!outbox.isEmpty()) {
+            flush();
+        }
+    }
+
+    private void closeExpiredWindows(long now) {
+        Iterator<Map.Entry<String, AlertWindow>> iterator = openWindows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, AlertWindow> entry = iterator.next();
+            AlertWindow window = entry.getValue();
+            if (now < window.closesAt) {
+                continue;
+            }
+
+            iterator.remove();
+            if (window.suppressed > 0) {
+                outbox.add(digestTemplate
+                        .replace("{player}", entry.getKey())
+                        .replace("{count}", String.valueOf(window.suppressed))
+                        .replace("{peak}", String.format("%.1f", window.peakCPS))
+                        .replace("{window}", String.valueOf(windowMillis / 1000)));
+            }
+        }
+    }
+
+    private void flush() {
+        List<Player> targets = recipients.getRecipients();
+        for (int i = 0; i < targets.size(); i++) {
+            Player recipient = targets.get(i);
+            for (int m = 0; m < outbox.size(); m++) {
+                recipient.sendMessage(outbox.get(m));
+            }
+
+            if (pendingSound != null) {
+                recipient.playSound(recipient.getLocation(), pendingSound, 0.5f, 1.0f);
+            }
+        }
+
+        outbox.clear();
+        pendingSound = null;
+        pendingSoundExtreme = false;
+    }
+
+    public int getOpenWindowCount() { return openWindows.size(); }
+
+    private static final class AlertWindow {
+        final long closesAt;
+        int suppressed;
+        double peakCPS;
+
+        AlertWindow(long closesAt, double cps) {
+            this.closesAt = closesAt;
+            this.peakCPS = cps;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package dev.abdelrahmanmoharram.cpswatchdog.services;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the list of online staff who should receive alerts, so sending an alert only
+ * touches its recipients instead of checking every online player.
+ *
+ * A player is a recipient while they are online, have alerts enabled and hold
+ * cpswatchdog.notify. The list is updated on join, quit and alert toggles, and the
+ * permission of players with alerts enabled is re-checked periodically because Bukkit
+ * has no event for permission changes. Alert preferences are stored in alerts.yml.
+ */
+public class AlertRecipientService {
+    public static final String NOTIFY_PERMISSION = "cpswatchdog.notify";
+
+    private final Plugin plugin;
+    private final File preferencesFile;
+    private final Set<UUID> alertEnabledPlayers = new HashSet<>();
+    private final List<Player> recipients = new ArrayList<>();
+    private final List<Player> recipientsView = Collections.unmodifiableList(recipients);
+    private BukkitTask refreshTask;
+
+    public AlertRecipientService(Plugin plugin) {
+        this.plugin = plugin;
+        this.preferencesFile = new File(plugin.getDataFolder(), "alerts.yml");
+    }
+
+    /**
+     * Load saved preferences and pick up staff who are already online (e.g. after /reload)
+     */
+    public void load() {
+        alertEnabledPlayers.clear();
+        if (preferencesFile.exists()) {
+            YamlConfiguration config = YamlConfiguration.loadConfiguration(preferencesFile);
+            for (String uuid : config.getStringList("enabled")) {
+                try {
+                    alertEnabledPlayers.add(UUID.fromString(uuid));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Ignoring invalid UUID in alerts.yml: " + uuid);
+                }
+            }
+        }
+
+        recipients.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            refresh(player);
+        }
+    }
+
+    /**
+     * Start the periodic permission re-check
+     * @param intervalTicks Ticks between checks, 0 or less to disable
+     */
+    public void startRefreshTask(long intervalTicks) {
+        stopRefreshTask();
+        if (intervalTicks <= 0) {
+            return;
+        }
+
+        refreshTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                refreshEnabledPlayers();
+            }
+        }.runTaskTimer(plugin, intervalTicks, intervalTicks);
+    }
+
+    public void stopRefreshTask() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+    }
+
+    /**
+     * Re-evaluate whether a player should receive alerts
+     */
+    public void refresh(Player player) {
+        boolean shouldReceive = player.isOnline()
+                && alertEnabledPlayers.contains(player.getUniqueId())
+                && player.hasPermission(NOTIFY_PERMISSION);
+
+        int index = indexOf(player.getUniqueId());
+        if (shouldReceive && index < 0) {
+            recipients.add(player);
+        } else if (!shouldReceive && index >= 0) {
+            recipients.remove(index);
+        }
+    }
+
+    public void handleJoin(Player player) {
+        refresh(player);
+    }
+
+    public void handleQuit(Player player) {
+        int index = indexOf(player.getUniqueId());
+        if (index >= 0) {
+            recipients.remove(index);
+        }
+    }
+
+    // Only players with alerts enabled can become recipients, so only they need re-checking
+    private void refreshEnabledPlayers() {
+        for (UUID uuid : alertEnabledPlayers) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null) {
+                refresh(player);
+            }
+        }
+        recipients.removeIf(player -> !player.isOnline());
+    }
+
+    public boolean toggle(Player player) {
+        boolean enabled = !alertEnabledPlayers.contains(player.getUniqueId());
+        setEnabled(player, enabled);
+        return enabled;
+    }
+
+    public void setEnabled(Player player, boolean enabled) {
+        boolean changed = enabled ? alertEnabledPlayers.add(player.getUniqueId())
+                : alertEnabledPlayers.remove(player.getUniqueId());
+        refresh(player);
+        if (changed) {
+            saveAsync();
+        }
+    }
+
+    public boolean isEnabled(Player player) {
+        return alertEnabledPlayers.contains(player.getUniqueId());
+    }
+
+    private int indexOf(UUID uuid) {
+        for (int i = 0; i < recipients.size(); i++) {
+            if (recipients.get(i).getUniqueId().equals(uuid)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void saveAsync() {
+        List<String> snapshot = snapshotPreferences();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> writePreferences(snapshot));
+    }
+
+    /**
+     * Write preferences immediately (call this when the plugin is disabled)
+     */
+    public void save() {
+        writePreferences(snapshotPreferences());
+    }
+
+    private List<String> snapshotPreferences() {
+        List<String> snapshot = new ArrayList<>(alertEnabledPlayers.size());
+        for (UUID uuid : alertEnabledPlayers) {
+            snapshot.add(uuid.toString());
+        }
+        return snapshot;
+    }
+
+    private synchronized void writePreferences(List<String> enabled) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("enabled", enabled);
+        try {
+            config.save(preferencesFile);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not save alert preferences: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Online staff who currently receive alerts (read-only, main thread only)
+     */
+    public List<Player> getRecipients() {
+        return recipientsView;
+    }
+
+    public Set<UUID> getAlertEnabledPlayers() {
+        return new HashSet<>(alertEnabledPlayers);
+    }
+}
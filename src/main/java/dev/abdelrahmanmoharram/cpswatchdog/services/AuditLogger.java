@@ -0,0 +1,324 @@
+package dev.abdelrahmanmoharram.cpswatchdog.services;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickType;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.DetectionVerdict;
+import dev.abdelrahmanmoharram.cpswatchdog.detection.ViolationReason;
+import org.bukkit.plugin.Plugin;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Asynchronous audit log for suspicious activity.
+ *
+ * Callers only capture the raw values of a finding and push them onto a bounded lock-free
+ * queue; they never format text or touch the disk. A background writer renders the lines,
+ * appends them in batches to a daily rotating file under logs/ and optionally echoes them
+ * to the console. When the queue is full new entries are dropped and counted, so logging
+ * can never stall a tick.
+ */
+public class AuditLogger {
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Plugin plugin;
+    private final File logDirectory;
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+
+    // Settings are read by the writer thread
+    private volatile int capacity;
+    private volatile boolean writeToFile;
+    private volatile boolean writeToConsole;
+    private volatile long maxFileSize;
+    private volatile int maxFiles;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    // Writer thread state
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+    private final Date formatDate = new Date();
+    private Writer fileWriter;
+    private String currentDate;
+    private int currentPart;
+    private long currentFileSize;
+
+    public AuditLogger(Plugin plugin) {
+        this.plugin = plugin;
+        this.logDirectory = new File(plugin.getDataFolder(), "logs");
+    }
+
+    /**
+     * @param capacity Maximum number of entries waiting to be written
+     * @param writeToFile Append entries to the rotating audit file
+     * @param writeToConsole Echo entries to the server console
+     * @param maxFileSizeMb Size in MB after which the current day's file is rolled over
+     * @param maxFiles Number of audit files to keep, 0 or less to keep all
+     */
+    public void configure(int capacity, boolean writeToFile, boolean writeToConsole, long maxFileSizeMb, int maxFiles) {
+        this.capacity = Math.max(1, capacity);
+        this.writeToFile = writeToFile;
+        this.writeToConsole = writeToConsole;
+        this.maxFileSize = Math.max(1, maxFileSizeMb) * 1024L * 1024L;
+        this.maxFiles = maxFiles;
+    }
+
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::runWriter, "CPSWatchdog-Audit");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Stop the writer after it has written everything still queued
+     */
+    public void shutdown() {
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writerThread = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return writeToFile || writeToConsole;
+    }
+
+    /**
+     * Queue a suspicious-activity entry. Safe to call from any thread.
+     */
+    public void logViolation(String playerName, DetectionVerdict verdict) {
+        if (!isEnabled()) {
+            return;
+        }
+        offer(new Entry(System.currentTimeMillis(), verdict.isExtreme() ? Level.SEVERE : Level.WARNING,
+                playerName, verdict.getClickType(), verdict.getReasons(), verdict.getCurrentCPS(),
+                verdict.getCombinedCPS(), verdict.getViolationCount(), null));
+    }
+
+    /**
+     * Queue a plain message. Safe to call from any thread.
+     */
+    public void log(Level level, String message) {
+        if (!isEnabled()) {
+            return;
+        }
+        offer(new Entry(System.currentTimeMillis(), level, null, null, 0, 0.0, 0.0, 0, message));
+    }
+
+    private void offer(Entry entry) {
+        // Reserve a slot first so the queue can never grow past its capacity
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.offer(entry);
+    }
+
+    private void runWriter() {
+        while (running || !queue.isEmpty()) {
+            int batch = 0;
+            Entry entry;
+            while (batch < BATCH_SIZE && (entry = queue.poll()) != null) {
+                queued.decrementAndGet();
+                write(entry);
+                batch++;
+            }
+
+            if (batch > 0) {
+                flushFile();
+            } else if (running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+        closeFile();
+    }
+
+    private void write(Entry entry) {
+        String line = entry.render();
+
+        if (writeToConsole) {
+            plugin.getLogger().log(entry.level, line);
+        }
+
+        if (writeToFile) {
+            try {
+                Writer writer = fileFor(entry.timestamp);
+                formatDate.setTime(entry.timestamp);
+                String fileLine = "[" + timeFormat.format(formatDate) + " "
+                        + entry.level.getName() + "] " + line + System.lineSeparator();
+                writer.write(fileLine);
+                currentFileSize += utf8Length(fileLine);
+                written.incrementAndGet();
+            } catch (IOException e) {
+                writeErrors.incrementAndGet();
+                closeFile();
+            }
+        } else {
+            written.incrementAndGet();
+        }
+    }
+
+    // Returns the writer for the entry's day, rolling over on date change or when the file is too large
+    private Writer fileFor(long timestamp) throws IOException {
+        formatDate.setTime(timestamp);
+        String date = dateFormat.format(formatDate);
+        if (fileWriter != null && date.equals(currentDate) && currentFileSize < maxFileSize) {
+            return fileWriter;
+        }
+
+        closeFile();
+        if (!logDirectory.exists() && !logDirectory.mkdirs()) {
+            throw new IOException("Could not create " + logDirectory);
+        }
+
+        if (!date.equals(currentDate)) {
+            currentDate = date;
+            currentPart = 0;
+        }
+
+        File file = fileName(date, currentPart);
+        while (file.length() >= maxFileSize) {
+            file = fileName(date, ++currentPart);
+        }
+
+        fileWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+        currentFileSize = file.length();
+        deleteOldFiles();
+        return fileWriter;
+    }
+
+    // Bytes the line takes in the file, so the size limit matches file.length() for non-ASCII names and reasons
+    static int utf8Length(String text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes++; // Unpaired surrogates are written as '?'
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private File fileName(String date, int part) {
+        return new File(logDirectory, part == 0 ? "audit-" + date + ".log" : "audit-" + date + "." + part + ".log");
+    }
+
+    private void deleteOldFiles() {
+        if (maxFiles <= 0) {
+            return;
+        }
+
+        File[] files = logDirectory.listFiles((dir, name) -> name.startsWith("audit-") && name.endsWith(".log"));
+        if (files == null || files.length <= maxFiles) {
+            return;
+        }
+
+        // Oldest first by modification time
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < files.length - maxFiles; i++) {
+            if (!files[i].delete()) {
+                writeErrors.incrementAndGet();
+            }
+        }
+    }
+
+    private void flushFile() {
+        if (fileWriter == null) {
+            return;
+        }
+        try {
+            fileWriter.flush();
+        } catch (IOException e) {
+            writeErrors.incrementAndGet();
+            closeFile();
+        }
+    }
+
+    private void closeFile() {
+        if (fileWriter == null) {
+            return;
+        }
+        try {
+            fileWriter.close();
+        } catch (IOException e) {
+            writeErrors.incrementAndGet();
+        }
+        fileWriter = null;
+    }
+
+    public int getQueuedCount() { return Math.max(0, queued.get()); }
+    public long getWrittenCount() { return written.get(); }
+    public long getDroppedCount() { return dropped.get(); }
+    public long getWriteErrorCount() { return writeErrors.get(); }
+
+    private static final class Entry {
+        final long timestamp;
+        final Level level;
+        final String playerName;
+        final ClickType clickType;
+        final int reasons;
+        final double cps;
+        final double combinedCPS;
+        final int violations;
+        final String message;
+
+        Entry(long timestamp, Level level, String playerName, ClickType clickType, int reasons,
+              double cps, double combinedCPS, int violations, String message) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.playerName = playerName;
+            this.clickType = clickType;
+            this.reasons = reasons;
+            this.cps = cps;
+            this.combinedCPS = combinedCPS;
+            this.violations = violations;
+            this.message = message;
+        }
+
+        // Runs on the writer thread
+        String render() {
+            if (message != null) {
+                return message;
+            }
+            return String.format("[CPSWatchdog] %s: %s (Violations: %d)",
+                    playerName, ViolationReason.render(reasons, clickType, cps, combinedCPS), violations);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package dev.abdelrahmanmoharram.cpswatchdog.services;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.ClickTrace;
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+
+/**
+ * Starts and stops raw click traces of flagged players.
+ *
+ * Once a player reaches violations_for_alert their clicks are recorded to
+ * traces/&lt;uuid&gt;-&lt;time&gt;.trace until their data expires. Trace files are created off the
+ * main thread and attached on the main thread, where clicks are recorded, and only if the
+ * player's data is still current by then. Disk usage is bounded by the ring size of each
+ * trace and the maximum number of trace files kept.
+ */
+public class ClickTraceRecorder {
+    private final Plugin plugin;
+    private final File directory;
+    private final int clicksPerTrace;
+    private final int maxTraces;
+    private final BiPredicate<UUID, PlayerCPSData> isCurrent;
+
+    private final Map<UUID, ClickTrace> activeTraces = new ConcurrentHashMap<>();
+    private final Set<UUID> startingTraces = ConcurrentHashMap.newKeySet();
+    private final Set<File> openFiles = ConcurrentHashMap.newKeySet(); // Files of starting and active traces
+    private final AtomicInteger reservedTraces = new AtomicInteger(); // Starting and active traces
+    private volatile boolean closed;
+
+    /**
+     * @param clicksPerTrace Clicks kept per trace before the oldest are overwritten
+     * @param maxTraces Maximum number of trace files, active ones included
+     * @param isCurrent Whether the data is still the player's current data, checked on the main thread
+     */
+    public ClickTraceRecorder(Plugin plugin, int clicksPerTrace, int maxTraces, BiPredicate<UUID, PlayerCPSData> isCurrent) {
+        this.plugin = plugin;
+        this.directory = new File(plugin.getDataFolder(), "traces");
+        this.clicksPerTrace = Math.max(1, clicksPerTrace);
+        this.maxTraces = Math.max(1, maxTraces);
+        this.isCurrent = isCurrent;
+    }
+
+    /**
+     * Start tracing a player's clicks unless they are already traced. Safe to call from any thread.
+     * The trace is attached to the player's data on the main thread once its file is ready.
+     */
+    public void startTrace(UUID playerUUID, PlayerCPSData data) {
+        if (closed || data.getTrace() != null || !startingTraces.add(playerUUID)) {
+            return;
+        }
+        if (!reserveSlot()) {
+            startingTraces.remove(playerUUID);
+            return;
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            ClickTrace trace;
+            try {
+                trace = createTrace(playerUUID);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Could not start click trace for " + data.getPlayerName() + ": " + e.getMessage());
+                startingTraces.remove(playerUUID);
+                reservedTraces.decrementAndGet();
+                return;
+            }
+
+            if (closed) {
+                discard(playerUUID, trace);
+                return;
+            }
+            try {
+                Bukkit.getScheduler().runTask(plugin, () -> attach(playerUUID, data, trace));
+            } catch (RuntimeException e) {
+                // The plugin is being disabled
+                discard(playerUUID, trace);
+            }
+        });
+    }
+
+    // Runs on the main thread, so no click is recorded while the trace is attached
+    private void attach(UUID playerUUID, PlayerCPSData data, ClickTrace trace) {
+        if (closed || data.getTrace() != null || !isCurrent.test(playerUUID, data)) {
+            // The data expired or the recorder was replaced while the file was created
+            discard(playerUUID, trace);
+            return;
+        }
+
+        activeTraces.put(playerUUID, trace);
+        data.setTrace(trace);
+        startingTraces.remove(playerUUID);
+    }
+
+    // Throw away a trace that was never attached, so nothing has recorded to it
+    private void discard(UUID playerUUID, ClickTrace trace) {
+        trace.close();
+        openFiles.remove(trace.getFile());
+        if (!trace.getFile().delete()) {
+            plugin.getLogger().fine("Could not delete unused click trace " + trace.getFile().getName());
+        }
+        startingTraces.remove(playerUUID);
+        reservedTraces.decrementAndGet();
+    }
+
+    /**
+     * Stop tracing a player, then flush and unmap their trace. Safe to call from any thread;
+     * the trace is closed on the main thread, after any click being recorded to it.
+     */
+    public void stopTrace(UUID playerUUID, PlayerCPSData data) {
+        ClickTrace trace = data.getTrace();
+        data.setTrace(null);
+        if (trace == null || !activeTraces.remove(playerUUID, trace)) {
+            return;
+        }
+
+        if (Bukkit.isPrimaryThread()) {
+            close(trace);
+            return;
+        }
+        try {
+            Bukkit.getScheduler().runTask(plugin, () -> close(trace));
+        } catch (RuntimeException e) {
+            // The plugin is being disabled; the mapping is released once the trace is garbage collected
+            trace.force();
+            openFiles.remove(trace.getFile());
+            reservedTraces.decrementAndGet();
+        }
+    }
+
+    private void close(ClickTrace trace) {
+        trace.close();
+        openFiles.remove(trace.getFile());
+        reservedTraces.decrementAndGet();
+    }
+
+    /**
+     * Close every active trace. Must be called on the main thread, after the traces were detached from player data.
+     */
+    public void shutdown() {
+        closed = true;
+        for (ClickTrace trace : activeTraces.values()) {
+            close(trace);
+        }
+        activeTraces.clear();
+    }
+
+    // Claim one of the maxTraces slots, counting traces that are still being created
+    private boolean reserveSlot() {
+        while (true) {
+            int reserved = reservedTraces.get();
+            if (reserved >= maxTraces) {
+                return false;
+            }
+            if (reservedTraces.compareAndSet(reserved, reserved + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Make room for the new trace and create it, one file at a time so old files are never counted twice
+    private synchronized ClickTrace createTrace(UUID playerUUID) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        deleteOldTraces();
+
+        String time = new SimpleDateFormat("yyyyMMdd-HHmmss").format(System.currentTimeMillis());
+        File file = new File(directory, playerUUID + "-" + time + ".trace");
+        ClickTrace trace = ClickTrace.create(file, clicksPerTrace);
+        openFiles.add(file);
+        return trace;
+    }
+
+    // Make room for one more trace by deleting the oldest finished ones
+    private void deleteOldTraces() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".trace"));
+        if (files == null || files.length < maxTraces) {
+            return;
+        }
+
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        int excess = files.length - maxTraces + 1;
+        for (File file : files) {
+            if (excess <= 0) {
+                break;
+            }
+            if (openFiles.contains(file)) {
+                continue;
+            }
+            if (file.delete()) {
+                excess--;
+            }
+        }
+    }
+
+    public int getActiveTraceCount() { return activeTraces.size(); }
+}
@@ -1,201 +1,326 @@
 package dev.abdelrahmanmoharram.cpswatchdog.services;
 
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Plugin-wide command cooldowns.
+ *
+ * Each command uses a named channel with its own duration. A check is a single map lookup
+ * and a comparison against a primitive expiry time. Every cooldown across all channels
+ * also sits on one two-level timing wheel: 64 one-second slots, plus 64 slots of 64
+ * seconds for longer cooldowns. Expired cooldowns are removed a whole slot at a time as the
+ * wheel turns, so no task ever scans every stored cooldown.
+ *
+ * All methods must be called from the main thread, except {@link #getChannels()} and the
+ * cooldown counts, which are published for metrics and may be read from any thread.
+ */
 public class CooldownService {
-    private final ConcurrentHashMap<UUID, Long> cooldowns = new ConcurrentHashMap<>();
-    private final long cooldownMillis;
-    private BukkitTask cleanupTask;
+    private static final long TICK_MILLIS = 1000L;
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
 
-    public CooldownService(int seconds) {
-        this.cooldownMillis = seconds * 1000L;
-    }
+    private final Map<String, Channel> channels = new HashMap<>();
+    private volatile Channel[] channelList = new Channel[0];
+    private final Cooldown[] inner = new Cooldown[WHEEL_SIZE]; // One tick per slot
+    private final Cooldown[] outer = new Cooldown[WHEEL_SIZE]; // WHEEL_SIZE ticks per slot
+    private long currentTick = System.currentTimeMillis() / TICK_MILLIS; // Next tick to process
+    private BukkitTask wheelTask;
 
     /**
-     * Start automatic cleanup task to remove expired cooldowns
-     * This prevents memory leaks from players who leave the server
+     * Start turning the wheel, which removes expired cooldowns to prevent memory leaks
      */
-    public void startCleanupTask(org.bukkit.plugin.Plugin plugin) {
-        if (cleanupTask != null) {
-            cleanupTask.cancel();
-        }
-
-        // Run cleanup every 5 minutes (6000 ticks)
-        cleanupTask = new BukkitRunnable() {
+    public void start(Plugin plugin) {
+        shutdown();
+        currentTick = System.currentTimeMillis() / TICK_MILLIS;
+        wheelTask = new BukkitRunnable() {
             @Override
             public void run() {
-                cleanupExpiredCooldowns();
+                advance(System.currentTimeMillis());
             }
-        }.runTaskTimerAsynchronously(plugin, 6000L, 6000L);
+        }.runTaskTimer(plugin, 20L, 20L);
+    }
+
+    /**
+     * Stop the wheel and forget all cooldowns (call this when the plugin is disabled)
+     */
+    public void shutdown() {
+        if (wheelTask != null) {
+            wheelTask.cancel();
+            wheelTask = null;
+        }
+        for (Channel channel : channels.values()) {
+            channel.clearAllCooldowns();
+        }
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            inner[i] = null;
+            outer[i] = null;
+        }
     }
 
     /**
-     * Stop the cleanup task (call this when plugin is disabled)
+     * Get a cooldown channel, creating it on first use
+     * @param name Unique name of the channel, e.g. the command name
+     * @param seconds Cooldown duration, only used when the channel is created
      */
-    public void stopCleanupTask() {
-        if (cleanupTask != null) {
-            cleanupTask.cancel();
-            cleanupTask = null;
+    public Channel channel(String name, int seconds) {
+        Channel channel = channels.get(name);
+        if (channel == null) {
+            channel = new Channel(name, seconds * 1000L);
+            channels.put(name, channel);
+            Channel[] extended = Arrays.copyOf(channelList, channelList.length + 1);
+            extended[channelList.length] = channel;
+            channelList = extended;
         }
+        return channel;
     }
 
     /**
-     * Check if a player is currently on cooldown
+     * @return All channels created so far. Safe to call from any thread.
      */
-    public boolean isOnCooldown(Player player) {
-        return isOnCooldown(player.getUniqueId());
+    public List<Channel> getChannels() {
+        return Collections.unmodifiableList(Arrays.asList(channelList));
     }
 
     /**
-     * Check if a UUID is currently on cooldown
+     * Get the number of active cooldowns across all channels
      */
-    public boolean isOnCooldown(UUID uuid) {
-        Long lastUsed = cooldowns.get(uuid);
-        if (lastUsed == null) {
-            return false;
+    public int getActiveCooldownCount() {
+        int count = 0;
+        for (Channel channel : channelList) {
+            count += channel.getActiveCooldownCount();
         }
+        return count;
+    }
+
+    // Remove the cooldowns of every slot up to now. Main thread only.
+    void advance(long now) {
+        long targetTick = now / TICK_MILLIS;
+        while (currentTick <= targetTick) {
+            long tick = currentTick;
+
+            // Entering a new inner rotation: spread the matching outer slot over the inner wheel
+            if ((tick & WHEEL_MASK) == 0) {
+                int outerSlot = (int) ((tick >> WHEEL_BITS) & WHEEL_MASK);
+                Cooldown cascading = outer[outerSlot];
+                outer[outerSlot] = null;
+                while (cascading != null) {
+                    Cooldown next = cascading.next;
+                    schedule(cascading);
+                    cascading = next;
+                }
+            }
 
-        long currentTime = System.currentTimeMillis();
-        boolean onCooldown = (currentTime - lastUsed) < cooldownMillis;
+            int slot = (int) (tick & WHEEL_MASK);
+            Cooldown due = inner[slot];
+            inner[slot] = null;
+            currentTick++;
 
-        // Remove expired cooldown immediately to save memory
-        if (!onCooldown) {
-            cooldowns.remove(uuid);
+            while (due != null) {
+                Cooldown next = due.next;
+                expire(due, now);
+                due = next;
+            }
         }
+    }
 
-        return onCooldown;
+    private void expire(Cooldown cooldown, long now) {
+        // Stale entry for a cooldown that was removed or cleared
+        if (cooldown.channel.cooldowns.get(cooldown.uuid) != cooldown) {
+            return;
+        }
+
+        if (now >= cooldown.expiresAt) {
+            cooldown.channel.cooldowns.remove(cooldown.uuid);
+            cooldown.channel.publishSize();
+        } else {
+            // Renewed since it was placed, or due later within this tick
+            schedule(cooldown);
+        }
     }
 
-    /**
-     * Get remaining cooldown time in seconds
-     */
-    public long getRemaining(Player player) {
-        return getRemaining(player.getUniqueId());
+    private void schedule(Cooldown cooldown) {
+        long tick = Math.max(cooldown.expiresAt / TICK_MILLIS, currentTick);
+        long delta = tick - currentTick;
+
+        if (delta < WHEEL_SIZE) {
+            int slot = (int) (tick & WHEEL_MASK);
+            cooldown.next = inner[slot];
+            inner[slot] = cooldown;
+        } else {
+            // Beyond the outer wheel's range: park in its furthest slot and re-place on cascade
+            long outerTick = delta < (long) WHEEL_SIZE * WHEEL_SIZE
+                    ? tick >> WHEEL_BITS
+                    : (currentTick >> WHEEL_BITS) + WHEEL_SIZE;
+            int slot = (int) (outerTick & WHEEL_MASK);
+            cooldown.next = outer[slot];
+            outer[slot] = cooldown;
+        }
     }
 
     /**
-     * Get remaining cooldown time in seconds for UUID
+     * Cooldowns of one command (or any other named action)
      */
-    public long getRemaining(UUID uuid) {
-        Long lastUsed = cooldowns.get(uuid);
-        if (lastUsed == null) {
-            return 0;
+    public final class Channel {
+        private final String name;
+        private final long cooldownMillis;
+        private final Map<UUID, Cooldown> cooldowns = new HashMap<>();
+        private volatile int size; // Copy of cooldowns.size() for other threads
+
+        private Channel(String name, long cooldownMillis) {
+            this.name = name;
+            this.cooldownMillis = cooldownMillis;
         }
 
-        long timePassed = System.currentTimeMillis() - lastUsed;
-        long remaining = cooldownMillis - timePassed;
+        private void publishSize() {
+            size = cooldowns.size();
+        }
 
-        return Math.max(0, remaining / 1000);
-    }
+        /**
+         * Check if a player is currently on cooldown
+         */
+        public boolean isOnCooldown(Player player) {
+            return isOnCooldown(player.getUniqueId());
+        }
 
-    /**
-     * Get remaining cooldown time in milliseconds
-     */
-    public long getRemainingMillis(UUID uuid) {
-        Long lastUsed = cooldowns.get(uuid);
-        if (lastUsed == null) {
-            return 0;
+        /**
+         * Check if a UUID is currently on cooldown
+         */
+        public boolean isOnCooldown(UUID uuid) {
+            return getRemainingMillis(uuid) > 0;
         }
 
-        long timePassed = System.currentTimeMillis() - lastUsed;
-        long remaining = cooldownMillis - timePassed;
+        /**
+         * Get remaining cooldown time in seconds
+         */
+        public long getRemaining(Player player) {
+            return getRemaining(player.getUniqueId());
+        }
 
-        return Math.max(0, remaining);
-    }
+        /**
+         * Get remaining cooldown time in seconds for UUID
+         */
+        public long getRemaining(UUID uuid) {
+            return getRemainingMillis(uuid) / 1000;
+        }
 
-    /**
-     * Set cooldown for a player
-     */
-    public void setCooldown(Player player) {
-        setCooldown(player.getUniqueId());
-    }
+        /**
+         * Get remaining cooldown time in milliseconds
+         */
+        public long getRemainingMillis(UUID uuid) {
+            Cooldown cooldown = cooldowns.get(uuid);
+            if (cooldown == null) {
+                return 0;
+            }
+            return Math.max(0, cooldown.expiresAt - System.currentTimeMillis());
+        }
 
-    /**
-     * Set cooldown for a UUID
-     */
-    public void setCooldown(UUID uuid) {
-        cooldowns.put(uuid, System.currentTimeMillis());
-    }
+        /**
+         * Set cooldown for a player
+         */
+        public void setCooldown(Player player) {
+            setCooldown(player.getUniqueId());
+        }
 
-    /**
-     * Remove cooldown for a player (admin override)
-     */
-    public boolean removeCooldown(Player player) {
-        return removeCooldown(player.getUniqueId());
-    }
+        /**
+         * Set cooldown for a UUID
+         */
+        public void setCooldown(UUID uuid) {
+            long expiresAt = System.currentTimeMillis() + cooldownMillis;
+            Cooldown cooldown = cooldowns.get(uuid);
+            if (cooldown != null) {
+                // Already on the wheel; it is moved to the new expiry when its slot comes due
+                cooldown.expiresAt = expiresAt;
+                return;
+            }
 
-    /**
-     * Remove cooldown for a UUID (admin override)
-     */
-    public boolean removeCooldown(UUID uuid) {
-        return cooldowns.remove(uuid) != null;
-    }
+            cooldown = new Cooldown(this, uuid, expiresAt);
+            cooldowns.put(uuid, cooldown);
+            publishSize();
+            schedule(cooldown);
+        }
 
-    /**
-     * Clear all cooldowns
-     */
-    public void clearAllCooldowns() {
-        cooldowns.clear();
-    }
+        /**
+         * Remove cooldown for a player (admin override)
+         */
+        public boolean removeCooldown(Player player) {
+            return removeCooldown(player.getUniqueId());
+        }
 
-    /**
-     * Get the number of active cooldowns
-     */
-    public int getActiveCooldownCount() {
-        return cooldowns.size();
-    }
+        /**
+         * Remove cooldown for a UUID (admin override)
+         */
+        public boolean removeCooldown(UUID uuid) {
+            boolean removed = cooldowns.remove(uuid) != null;
+            publishSize();
+            return removed;
+        }
 
-    /**
-     * Get cooldown duration in seconds
-     */
-    public long getCooldownDuration() {
-        return cooldownMillis / 1000;
-    }
+        /**
+         * Clear all cooldowns of this channel
+         */
+        public void clearAllCooldowns() {
+            cooldowns.clear();
+            publishSize();
+        }
 
-    /**
-     * Remove expired cooldowns to prevent memory leaks
-     */
-    private void cleanupExpiredCooldowns() {
-        long currentTime = System.currentTimeMillis();
-        Iterator<Map.Entry<UUID, Long>> iterator = cooldowns.entrySet().iterator();
-
-        int removedCount = 0;
-        while (iterator.hasNext()) {
-            Map.Entry<UUID, Long> entry = iterator.next();
-            if (currentTime - entry.getValue() >= cooldownMillis) {
-                iterator.remove();
-                removedCount++;
-            }
+        /**
+         * Get the number of active cooldowns. Safe to call from any thread.
+         */
+        public int getActiveCooldownCount() {
+            return size;
         }
 
-        // Log cleanup results if significant
-        if (removedCount > 10) {
-            System.out.println("[CPSWatchdog] Cleaned up " + removedCount + " expired cooldowns");
+        /**
+         * Get cooldown duration in seconds
+         */
+        public long getCooldownDuration() {
+            return cooldownMillis / 1000;
         }
-    }
 
-    /**
-     * Format remaining time as a human-readable string
-     */
-    public String formatRemainingTime(UUID uuid) {
-        long remaining = getRemaining(uuid);
-        if (remaining <= 0) {
-            return "0s";
+        public String getName() {
+            return name;
         }
 
-        if (remaining >= 60) {
-            long minutes = remaining / 60;
-            long seconds = remaining % 60;
-            return minutes + "m " + seconds + "s";
-        } else {
-            return remaining + "s";
+        /**
+         * Format remaining time as a human-readable string
+         */
+        public String formatRemainingTime(UUID uuid) {
+            long remaining = getRemaining(uuid);
+            if (remaining <= 0) {
+                return "0s";
+            }
+
+            if (remaining >= 60) {
+                long minutes = remaining / 60;
+                long seconds = remaining % 60;
+                return minutes + "m " + seconds + "s";
+            } else {
+                return remaining + "s";
+            }
+        }
+    }
+
+    private static final class Cooldown {
+        final Channel channel;
+        final UUID uuid;
+        long expiresAt;
+        Cooldown next;
+
+        Cooldown(Channel channel, UUID uuid, long expiresAt) {
+            this.channel = channel;
+            this.uuid = uuid;
+            this.expiresAt = expiresAt;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,396 @@
+package dev.abdelrahmanmoharram.cpswatchdog.services;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.SessionSummary;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only binary store of session summaries (data.storage.save_player_data).
+ *
+ * Summaries are written as fixed-size records to one segment file per day under
+ * sessions/. Finished sessions are queued and written in one batch by an async task, and
+ * segments older than data_retention_days are deleted when the day rolls over. An
+ * in-memory index, rebuilt from the segments on startup, maps each player to their latest
+ * record so an offline lookup reads a single record.
+ */
+public class SessionStore {
+    private static final int MAGIC = 0x43505353; // "CPSS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 96;
+    private static final int MAX_NAME_LENGTH = 16;
+    private static final long FLUSH_INTERVAL_TICKS = 100L;
+    private static final String SEGMENT_PREFIX = "sessions-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private final Plugin plugin;
+    private final File directory;
+    private final int retentionDays;
+    private final boolean deleteExpired;
+
+    private final Queue<SessionSummary> pending = new ConcurrentLinkedQueue<>();
+    private final Map<UUID, RecordLocation> index = new ConcurrentHashMap<>();
+    private final Map<String, UUID> nameIndex = new ConcurrentHashMap<>();
+    private BukkitTask flushTask;
+
+    // Guarded by this
+    private FileChannel segment;
+    private String segmentDate;
+
+    /**
+     * @param retentionDays Days to keep segments
+     * @param deleteExpired Delete segments older than the retention period
+     */
+    public SessionStore(Plugin plugin, int retentionDays, boolean deleteExpired) {
+        this.plugin = plugin;
+        this.directory = new File(plugin.getDataFolder(), "sessions");
+        this.retentionDays = Math.max(1, retentionDays);
+        this.deleteExpired = deleteExpired;
+    }
+
+    public void start() {
+        flushTask = new BukkitRunnable() {
+            private boolean loaded;
+
+            @Override
+            public void run() {
+                if (!loaded) {
+                    load();
+                    loaded = true;
+                }
+                flush();
+            }
+        }.runTaskTimerAsynchronously(plugin, 0L, FLUSH_INTERVAL_TICKS);
+    }
+
+    /**
+     * Write everything still queued and close the current segment
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+        closeSegment();
+    }
+
+    /**
+     * Queue a finished session for the next batch. Safe to call from any thread.
+     */
+    public void append(SessionSummary summary) {
+        pending.offer(summary);
+    }
+
+    /**
+     * Read the latest stored session of a player. Blocks on disk I/O, so call it off the main thread.
+     * @return The summary, or null if none is stored
+     */
+    public SessionSummary lookup(String playerName) {
+        UUID playerUUID = nameIndex.get(playerName.toLowerCase(Locale.ROOT));
+        return playerUUID != null ? lookup(playerUUID) : null;
+    }
+
+    /**
+     * Read the latest stored session of a player. Blocks on disk I/O, so call it off the main thread.
+     * @return The summary, or null if none is stored
+     */
+    public SessionSummary lookup(UUID playerUUID) {
+        RecordLocation location = index.get(playerUUID);
+        if (location == null) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        try (FileChannel channel = FileChannel.open(segmentFile(location.segmentDate).toPath(), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, location.offset + buffer.position()) < 0) {
+                    return null;
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        buffer.flip();
+        return readRecord(buffer);
+    }
+
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<SessionSummary> batch = new ArrayList<>();
+        SessionSummary summary;
+        while ((summary = pending.poll()) != null) {
+            batch.add(summary);
+        }
+
+        try {
+            FileChannel channel = openSegment(formatDate(System.currentTimeMillis()));
+            long offset = channel.size();
+
+            ByteBuffer buffer = ByteBuffer.allocate(batch.size() * RECORD_SIZE);
+            for (SessionSummary entry : batch) {
+                writeRecord(buffer, entry);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                indexRecord(batch.get(i), segmentDate, offset + (long) i * RECORD_SIZE);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not save " + batch.size() + " player sessions: " + e.getMessage());
+        }
+    }
+
+    private FileChannel openSegment(String date) throws IOException {
+        if (segment != null && date.equals(segmentDate)) {
+            return segment;
+        }
+
+        closeSegment();
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+
+        FileChannel channel = FileChannel.open(segmentFile(date).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            channel.write(header, 0);
+        } else {
+            // Drop a record torn by a crash so new records stay aligned
+            long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+        }
+
+        segment = channel;
+        segmentDate = date;
+        deleteExpiredSegments();
+        return channel;
+    }
+
+    private synchronized void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not close session segment: " + e.getMessage());
+        }
+        segment = null;
+        segmentDate = null;
+    }
+
+    /**
+     * Rebuild the index from the segments on disk, oldest first so later sessions win
+     */
+    private synchronized void load() {
+        deleteExpiredSegments();
+
+        File[] files = listSegments();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 256);
+        for (File file : files) {
+            String date = segmentDateOf(file);
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                if (channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC) {
+                    plugin.getLogger().warning("Skipping invalid session segment " + file.getName());
+                    continue;
+                }
+
+                // Whole records only; a torn record at the end is ignored
+                long end = HEADER_SIZE + (channel.size() - HEADER_SIZE) / RECORD_SIZE * RECORD_SIZE;
+                long position = HEADER_SIZE;
+                while (position < end) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                    while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+                        // Keep reading until the chunk is full
+                    }
+                    buffer.flip();
+                    if (buffer.remaining() < RECORD_SIZE) {
+                        break;
+                    }
+                    while (buffer.remaining() >= RECORD_SIZE) {
+                        indexRecord(readRecord(buffer), date, position);
+                        position += RECORD_SIZE;
+                    }
+                }
+            } catch (IOException e) {
+                plugin.getLogger().warning("Could not read session segment " + file.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void indexRecord(SessionSummary summary, String date, long offset) {
+        index.put(summary.getPlayerUUID(), new RecordLocation(date, offset));
+        if (!summary.getPlayerName().isEmpty()) {
+            nameIndex.put(summary.getPlayerName().toLowerCase(Locale.ROOT), summary.getPlayerUUID());
+        }
+    }
+
+    private void deleteExpiredSegments() {
+        if (!deleteExpired) {
+            return;
+        }
+
+        File[] files = listSegments();
+        if (files == null) {
+            return;
+        }
+
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        String cutoffDate = formatDate(cutoff);
+        boolean deleted = false;
+        for (File file : files) {
+            String date = segmentDateOf(file);
+            if (date.compareTo(cutoffDate) < 0 && !date.equals(segmentDate)) {
+                if (file.delete()) {
+                    deleted = true;
+                } else {
+                    plugin.getLogger().warning("Could not delete expired session segment " + file.getName());
+                }
+            }
+        }
+
+        if (deleted) {
+            dropIndexBefore(cutoffDate);
+        }
+    }
+
+    private void dropIndexBefore(String cutoffDate) {
+        Iterator<Map.Entry<UUID, RecordLocation>> iterator = index.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue().segmentDate.compareTo(cutoffDate) < 0) {
+                iterator.remove();
+            }
+        }
+        nameIndex.values().removeIf(playerUUID -> !index.containsKey(playerUUID));
+    }
+
+    private File[] listSegments() {
+        return directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)
+                && isDate(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+    }
+
+    private File segmentFile(String date) {
+        return new File(directory, SEGMENT_PREFIX + date + SEGMENT_SUFFIX);
+    }
+
+    private static String segmentDateOf(File file) {
+        String name = file.getName();
+        return name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+    }
+
+    private static String formatDate(long time) {
+        return new SimpleDateFormat("yyyy-MM-dd").format(time);
+    }
+
+    private static boolean isDate(String date) {
+        try {
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+            format.setLenient(false);
+            format.parse(date);
+            return date.length() == 10;
+        } catch (ParseException e) {
+            return false;
+        }
+    }
+
+    private static void writeRecord(ByteBuffer buffer, SessionSummary summary) {
+        int start = buffer.position();
+        buffer.putLong(summary.getPlayerUUID().getMostSignificantBits());
+        buffer.putLong(summary.getPlayerUUID().getLeastSignificantBits());
+        buffer.putLong(summary.getSessionStart());
+        buffer.putLong(summary.getSessionEnd());
+        buffer.putInt(summary.getTotalLeftClicks());
+        buffer.putInt(summary.getTotalRightClicks());
+        buffer.putDouble(summary.getMaxLeftCPS());
+        buffer.putDouble(summary.getMaxRightCPS());
+        buffer.putFloat((float) summary.getLeftVariance());
+        buffer.putFloat((float) summary.getRightVariance());
+        buffer.putInt(summary.getViolationCount());
+        buffer.putInt(summary.getSuspiciousActivityCount());
+
+        byte[] name = summary.getPlayerName().getBytes(StandardCharsets.UTF_8);
+        int nameLength = Math.min(name.length, MAX_NAME_LENGTH);
+        buffer.put((byte) nameLength);
+        buffer.put(name, 0, nameLength);
+
+        // Zero padding up to the fixed record size
+        while (buffer.position() < start + RECORD_SIZE) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private static SessionSummary readRecord(ByteBuffer buffer) {
+        int start = buffer.position();
+        UUID playerUUID = new UUID(buffer.getLong(), buffer.getLong());
+        long sessionStart = buffer.getLong();
+        long sessionEnd = buffer.getLong();
+        int leftClicks = buffer.getInt();
+        int rightClicks = buffer.getInt();
+        double maxLeftCPS = buffer.getDouble();
+        double maxRightCPS = buffer.getDouble();
+        double leftVariance = buffer.getFloat();
+        double rightVariance = buffer.getFloat();
+        int violations = buffer.getInt();
+        int suspiciousActivities = buffer.getInt();
+
+        int nameLength = Math.min(buffer.get() & 0xFF, MAX_NAME_LENGTH);
+        byte[] name = new byte[nameLength];
+        buffer.get(name);
+        buffer.position(start + RECORD_SIZE);
+
+        return new SessionSummary(playerUUID, new String(name, StandardCharsets.UTF_8), sessionStart, sessionEnd,
+                leftClicks, rightClicks, maxLeftCPS, maxRightCPS, leftVariance, rightVariance,
+                violations, suspiciousActivities);
+    }
+
+    public int getIndexedPlayerCount() { return index.size(); }
+    public int getPendingCount() { return pending.size(); }
+
+    private static final class RecordLocation {
+        final String segmentDate;
+        final long offset;
+
+        RecordLocation(String segmentDate, long offset) {
+            this.segmentDate = segmentDate;
+            this.offset = offset;
+        }
+    }
+}
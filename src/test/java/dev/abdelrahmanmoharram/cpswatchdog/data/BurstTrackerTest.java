@@ -0,0 +1,111 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BurstTrackerTest {
+
+    private static void click(BurstTracker bursts, long from, long to, long step) {
+        for (long time = from; time <= to; time += step) {
+            bursts.add(time);
+        }
+    }
+
+    @Test
+    public void burstStartsWithTheOldestClickInTheWindow() {
+        BurstTracker bursts = new BurstTracker(1000, 5);
+        click(bursts, 0, 300, 100);
+        assertFalse(bursts.isActive());
+        assertFalse(bursts.takeNewBurst());
+
+        bursts.add(400);
+        assertTrue(bursts.isActive());
+        assertEquals(0, bursts.getBurstStart());
+        assertEquals(400, bursts.getBurstEnd());
+        assertEquals(5, bursts.getBurstPeak());
+        assertTrue(bursts.takeNewBurst());
+        assertFalse(bursts.takeNewBurst());
+    }
+
+    @Test
+    public void burstEndIsTheLastClickBeforeItDropsBelowTheThreshold() {
+        BurstTracker bursts = new BurstTracker(1000, 5);
+        click(bursts, 0, 900, 100);
+        assertEquals(900, bursts.getBurstEnd());
+        assertEquals(10, bursts.getBurstPeak());
+
+        bursts.add(2000);
+        assertFalse(bursts.isActive());
+        assertEquals(0, bursts.getBurstStart());
+        assertEquals(900, bursts.getBurstEnd());
+        assertEquals(10, bursts.getBurstPeak());
+        assertEquals(10.0, bursts.getBurstCPS(), 1e-9);
+    }
+
+    @Test
+    public void burstThatEndedBeforeTheNextCheckIsStillReported() {
+        BurstTracker bursts = new BurstTracker(1000, 5);
+        click(bursts, 0, 400, 100);
+        bursts.add(2000);
+
+        assertFalse(bursts.isActive());
+        assertTrue(bursts.takeNewBurst());
+        assertFalse(bursts.takeNewBurst());
+    }
+
+    @Test
+    public void laterBurstsGetTheirOwnMarkers() {
+        BurstTracker bursts = new BurstTracker(1000, 5);
+        click(bursts, 0, 400, 100);
+        assertTrue(bursts.takeNewBurst());
+
+        click(bursts, 2000, 2400, 100);
+        assertTrue(bursts.isActive());
+        assertEquals(2, bursts.getBurstCount());
+        assertEquals(2000, bursts.getBurstStart());
+        assertEquals(2400, bursts.getBurstEnd());
+        assertEquals(5, bursts.getBurstPeak());
+        assertTrue(bursts.takeNewBurst());
+    }
+
+    @Test
+    public void windowCountMatchesANaiveCount() {
+        BurstTracker bursts = new BurstTracker(1000, 8);
+        Random random = new Random(4);
+        long[] times = new long[2000];
+        long time = 0;
+        int max = 0;
+        for (int i = 0; i < times.length; i++) {
+            time += random.nextInt(10) == 0 ? 1500 : random.nextInt(200);
+            times[i] = time;
+            bursts.add(time);
+
+            // Clicks in (time - duration, time]
+            int expected = 0;
+            for (int j = i; j >= 0 && times[j] > time - 1000; j--) {
+                expected++;
+            }
+            max = Math.max(max, expected);
+            assertEquals(expected, bursts.getWindowCount());
+            assertEquals(expected >= 8, bursts.isActive());
+        }
+        assertEquals(max, bursts.getMaxWindowCount());
+    }
+
+    @Test
+    public void windowCountIsCappedAtTheRingCapacity() {
+        BurstTracker bursts = new BurstTracker(1000, 5);
+        for (int i = 0; i < 100; i++) {
+            bursts.add(500);
+        }
+
+        assertEquals(64, bursts.getWindowCount());
+        assertEquals(64, bursts.getMaxWindowCount());
+        assertEquals(1, bursts.getBurstCount());
+    }
+}
@@ -0,0 +1,98 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntervalEntropyTest {
+    private static final long TICK_NANOS = 50_000_000L;
+    private static final double EPSILON = 1e-9;
+
+    // Entropy in bits of intervalsNanos[from, to), counted from scratch
+    private static double naiveEntropy(long[] intervalsNanos, int from, int to, long binWidthNanos) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int i = from; i < to; i++) {
+            long bin = Math.min(127, (Math.max(0, intervalsNanos[i]) + binWidthNanos / 2) / binWidthNanos);
+            counts.merge(bin, 1, Integer::sum);
+        }
+
+        int n = to - from;
+        double entropy = 0.0;
+        for (int count : counts.values()) {
+            double p = (double) count / n;
+            entropy -= p * Math.log(p) / Math.log(2);
+        }
+        return entropy;
+    }
+
+    @Test
+    public void matchesAScratchComputationThroughManyRotations() {
+        int window = 50;
+        Random random = new Random(3);
+        long[] intervals = new long[1000];
+        for (int i = 0; i < intervals.length; i++) {
+            if (i % 97 == 0) {
+                intervals[i] = 20_000_000_000L; // Pause past the last bin
+            } else if (i % 89 == 0) {
+                intervals[i] = -1L;
+            } else {
+                intervals[i] = (long) ((100 + 25 * random.nextGaussian()) * 1e6);
+            }
+        }
+
+        IntervalEntropy entropy = new IntervalEntropy(window, TICK_NANOS);
+        for (int i = 0; i < intervals.length; i++) {
+            entropy.record(intervals[i]);
+            int from = Math.max(0, i + 1 - window);
+            assertEquals(i + 1 - from, entropy.size());
+            assertEquals(naiveEntropy(intervals, from, i + 1, TICK_NANOS), entropy.getEntropy(), EPSILON);
+        }
+        assertTrue(entropy.isFull());
+    }
+
+    @Test
+    public void constantIntervalsHaveNoEntropy() {
+        IntervalEntropy entropy = new IntervalEntropy(20, TICK_NANOS);
+        for (int i = 0; i < 100; i++) {
+            entropy.record(100_000_000L);
+        }
+
+        assertEquals(0.0, entropy.getEntropy(), EPSILON);
+    }
+
+    @Test
+    public void distinctIntervalsHaveMaximalEntropy() {
+        IntervalEntropy entropy = new IntervalEntropy(32, TICK_NANOS);
+        for (int i = 0; i < 32; i++) {
+            assertFalse(entropy.isFull());
+            entropy.record(i * TICK_NANOS);
+        }
+
+        assertTrue(entropy.isFull());
+        assertEquals(5.0, entropy.getEntropy(), EPSILON);
+    }
+
+    @Test
+    public void tickJitterStaysInOneBin() {
+        IntervalEntropy entropy = new IntervalEntropy(20, TICK_NANOS);
+        for (int i = 0; i < 20; i++) {
+            entropy.record(i % 2 == 0 ? 99_000_000L : 101_000_000L);
+        }
+
+        assertEquals(0.0, entropy.getEntropy(), EPSILON);
+    }
+
+    @Test
+    public void emptyWindowHasNoEntropy() {
+        IntervalEntropy entropy = new IntervalEntropy(20, TICK_NANOS);
+
+        assertEquals(0, entropy.size());
+        assertEquals(0.0, entropy.getEntropy(), 0.0);
+    }
+}
@@ -0,0 +1,153 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IntervalHistogramTest {
+    private static final double EPSILON = 1e-6;
+
+    // Mean, variance, skewness and excess kurtosis of intervalsNanos[from, to) in milliseconds, two passes
+    private static double[] naiveMoments(long[] intervalsNanos, int from, int to) {
+        int n = to - from;
+        double mean = 0;
+        for (int i = from; i < to; i++) {
+            mean += intervalsNanos[i] / 1e6;
+        }
+        mean /= n;
+
+        double m2 = 0, m3 = 0, m4 = 0;
+        for (int i = from; i < to; i++) {
+            double d = intervalsNanos[i] / 1e6 - mean;
+            m2 += d * d;
+            m3 += d * d * d;
+            m4 += d * d * d * d;
+        }
+        m2 /= n;
+        m3 /= n;
+        m4 /= n;
+        return new double[] { mean, m2, m3 / Math.pow(m2, 1.5), m4 / (m2 * m2) - 3.0 };
+    }
+
+    // Right-skewed intervals around 100 ms, like human clicking
+    private static long[] humanIntervals(int count, long seed) {
+        Random random = new Random(seed);
+        long[] intervals = new long[count];
+        for (int i = 0; i < count; i++) {
+            double millis = 60 + 40 * Math.exp(0.4 * random.nextGaussian());
+            intervals[i] = (long) (millis * 1e6);
+        }
+        return intervals;
+    }
+
+    private static void assertMoments(double[] expected, IntervalHistogram histogram) {
+        assertEquals(expected[0], histogram.getMeanMillis(), EPSILON * expected[0]);
+        assertEquals(expected[1], histogram.getVariance(), EPSILON * expected[1]);
+        assertEquals(expected[2], histogram.getSkewness(), EPSILON);
+        assertEquals(expected[3], histogram.getKurtosis(), EPSILON);
+    }
+
+    @Test
+    public void momentsMatchATwoPassComputation() {
+        long[] intervals = humanIntervals(500, 1);
+        IntervalHistogram histogram = new IntervalHistogram();
+        for (long interval : intervals) {
+            histogram.record(interval);
+        }
+
+        assertEquals(500, histogram.getSampleCount());
+        assertMoments(naiveMoments(intervals, 0, intervals.length), histogram);
+    }
+
+    @Test
+    public void decayHalvesCountsButKeepsMoments() {
+        long[] intervals = humanIntervals(IntervalHistogram.DECAY_SAMPLES, 2);
+        IntervalHistogram histogram = new IntervalHistogram();
+        for (int i = 0; i < intervals.length - 1; i++) {
+            histogram.record(intervals[i]);
+        }
+        assertEquals(IntervalHistogram.DECAY_SAMPLES - 1, histogram.getSampleCount());
+
+        histogram.record(intervals[intervals.length - 1]);
+        assertTrue(histogram.getSampleCount() <= IntervalHistogram.DECAY_SAMPLES / 2);
+        assertTrue(histogram.getSampleCount() >= IntervalHistogram.DECAY_SAMPLES / 2 - 64);
+        assertMoments(naiveMoments(intervals, 0, intervals.length), histogram);
+    }
+
+    @Test
+    public void decayedSamplesWeighHalfAsMuch() {
+        IntervalHistogram histogram = new IntervalHistogram();
+        for (int i = 0; i < IntervalHistogram.DECAY_SAMPLES; i++) {
+            histogram.record(100_000_000L);
+        }
+        for (int i = 0; i < IntervalHistogram.DECAY_SAMPLES / 4; i++) {
+            histogram.record(200_000_000L);
+        }
+
+        // 1024 samples at 100 ms halved to 512, against 256 fresh ones at 200 ms
+        assertEquals(768, histogram.getSampleCount());
+        assertEquals(400.0 / 3, histogram.getMeanMillis(), EPSILON);
+        assertEquals(20000.0 / 9, histogram.getVariance(), EPSILON);
+    }
+
+    @Test
+    public void constantRhythmIsFullyConcentrated() {
+        IntervalHistogram histogram = new IntervalHistogram();
+        for (int i = 0; i < 100; i++) {
+            histogram.record(100_000_000L);
+        }
+
+        assertEquals(100.0, histogram.getMeanMillis(), EPSILON);
+        assertEquals(0.0, histogram.getVariance(), EPSILON);
+        assertEquals(0.0, histogram.getSkewness(), 0.0);
+        assertEquals(0.0, histogram.getKurtosis(), 0.0);
+        assertEquals(1.0, histogram.getModeConcentration(), 0.0);
+        assertEquals(0.0, histogram.getOutlierRatio(), 0.0);
+    }
+
+    @Test
+    public void intervalsAnOctaveAwayAreOutliers() {
+        IntervalHistogram histogram = new IntervalHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(100_000_000L);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(400_000_000L);
+        }
+
+        assertEquals(0.9, histogram.getModeConcentration(), EPSILON);
+        assertEquals(0.1, histogram.getOutlierRatio(), EPSILON);
+    }
+
+    @Test
+    public void pausesAndNegativeIntervalsAreIgnored() {
+        IntervalHistogram histogram = new IntervalHistogram();
+        histogram.record(-1L);
+        histogram.record(1L << 31);
+        histogram.record(5_000_000_000L);
+
+        assertEquals(0, histogram.getSampleCount());
+        assertEquals(0.0, histogram.getMeanMillis(), 0.0);
+        assertEquals(0.0, histogram.getModeConcentration(), 0.0);
+    }
+
+    @Test
+    public void bucketsAreQuarterOctaves() {
+        assertEquals(0, IntervalHistogram.bucketOf(0));
+        assertEquals(0, IntervalHistogram.bucketOf((1L << 20) - 1));
+        assertEquals(1, IntervalHistogram.bucketOf(1L << 20));
+        assertEquals(2, IntervalHistogram.bucketOf((1L << 20) + (1L << 18)));
+        assertEquals(5, IntervalHistogram.bucketOf(1L << 21));
+        assertEquals(44, IntervalHistogram.bucketOf((1L << 31) - 1));
+
+        int previous = 0;
+        for (long nanos = 1L << 19; nanos < 1L << 31; nanos += nanos / 97 + 1) {
+            int bucket = IntervalHistogram.bucketOf(nanos);
+            assertTrue(bucket == previous || bucket == previous + 1);
+            previous = bucket;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RollingStatsTest {
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void meanAndVarianceMatchATwoPassComputation() {
+        int capacity = 20;
+        Random random = new Random(5);
+        double[] values = new double[500];
+        RollingStats stats = new RollingStats(capacity);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 8 + 4 * random.nextGaussian();
+            stats.add(values[i]);
+
+            int from = Math.max(0, i + 1 - capacity);
+            int n = i + 1 - from;
+            double mean = 0;
+            for (int j = from; j <= i; j++) {
+                mean += values[j];
+            }
+            mean /= n;
+            double variance = 0;
+            for (int j = from; j <= i; j++) {
+                variance += (values[j] - mean) * (values[j] - mean);
+            }
+            variance /= n;
+
+            assertEquals(n, stats.size());
+            assertEquals(mean, stats.getMean(), EPSILON);
+            assertEquals(variance, stats.getVariance(), EPSILON);
+        }
+    }
+
+    @Test
+    public void valuesStayInOrderAfterWrapping() {
+        RollingStats stats = new RollingStats(4);
+        for (int i = 1; i <= 10; i++) {
+            stats.add(i);
+        }
+
+        assertTrue(stats.isFull());
+        assertEquals(7.0, stats.get(0), 0.0);
+        assertEquals(10.0, stats.get(3), 0.0);
+        assertEquals(Arrays.asList(7.0, 8.0, 9.0, 10.0), stats.toList());
+    }
+
+    @Test
+    public void constantValuesHaveNoVariance() {
+        RollingStats stats = new RollingStats(10);
+        for (int i = 0; i < 35; i++) {
+            stats.add(12.3);
+        }
+
+        assertEquals(12.3, stats.getMean(), EPSILON);
+        assertEquals(0.0, stats.getVariance(), EPSILON);
+    }
+
+    @Test
+    public void clearEmptiesTheWindow() {
+        RollingStats stats = new RollingStats(4);
+        for (int i = 1; i <= 6; i++) {
+            stats.add(i);
+        }
+        stats.clear();
+
+        assertTrue(stats.isEmpty());
+        assertEquals(0.0, stats.getMean(), 0.0);
+        assertEquals(0.0, stats.getVariance(), 0.0);
+
+        stats.add(5);
+        assertFalse(stats.isFull());
+        assertEquals(5.0, stats.getMean(), 0.0);
+        assertEquals(Arrays.asList(5.0), stats.toList());
+    }
+}
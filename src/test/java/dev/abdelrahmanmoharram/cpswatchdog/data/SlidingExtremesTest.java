@@ -0,0 +1,70 @@
+package dev.abdelrahmanmoharram.cpswatchdog.data;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SlidingExtremesTest {
+
+    private static void assertMatchesAWindowScan(int window, double[] values) {
+        SlidingExtremes extremes = new SlidingExtremes(window);
+        for (int i = 0; i < values.length; i++) {
+            extremes.add(values[i]);
+
+            double max = Double.NEGATIVE_INFINITY;
+            double min = Double.POSITIVE_INFINITY;
+            for (int j = Math.max(0, i + 1 - window); j <= i; j++) {
+                max = Math.max(max, values[j]);
+                min = Math.min(min, values[j]);
+            }
+            assertEquals(max, extremes.getMax(), 0.0);
+            assertEquals(min, extremes.getMin(), 0.0);
+        }
+    }
+
+    @Test
+    public void matchesAWindowScanOnRandomValues() {
+        Random random = new Random(6);
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(30);
+        }
+
+        assertMatchesAWindowScan(1, values);
+        assertMatchesAWindowScan(7, values);
+        assertMatchesAWindowScan(64, values);
+    }
+
+    @Test
+    public void matchesAWindowScanOnMonotonicRuns() {
+        double[] values = new double[300];
+        for (int i = 0; i < values.length; i++) {
+            // Rising then falling runs fill and drain the queues completely
+            values[i] = (i / 50) % 2 == 0 ? i % 50 : 50 - i % 50;
+        }
+
+        assertMatchesAWindowScan(10, values);
+        assertMatchesAWindowScan(50, values);
+    }
+
+    @Test
+    public void clearStartsAnEmptyWindow() {
+        SlidingExtremes extremes = new SlidingExtremes(5);
+        assertTrue(extremes.isEmpty());
+        extremes.add(20);
+        extremes.add(3);
+        extremes.clear();
+
+        assertTrue(extremes.isEmpty());
+        assertEquals(0.0, extremes.getMax(), 0.0);
+
+        extremes.add(7);
+        assertFalse(extremes.isEmpty());
+        assertEquals(7.0, extremes.getMax(), 0.0);
+        assertEquals(7.0, extremes.getMin(), 0.0);
+    }
+}
@@ -0,0 +1,87 @@
+package dev.abdelrahmanmoharram.cpswatchdog.detection;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PeriodicityDetectorTest {
+    private static final int WINDOW = 256;
+    private static final int MAX_LAG = 32;
+
+    @Test
+    public void delaySequencesScoreHigh() {
+        Random random = new Random(8);
+        double[] sequence = { 70, 95, 85, 110, 75 };
+        double[] intervals = new double[WINDOW];
+        for (int i = 0; i < intervals.length; i++) {
+            intervals[i] = sequence[i % sequence.length] + random.nextGaussian();
+        }
+
+        assertTrue(PeriodicityDetector.score(intervals, MAX_LAG) > 0.9);
+    }
+
+    @Test
+    public void independentTimingScoresLow() {
+        Random random = new Random(9);
+        double[] intervals = new double[WINDOW];
+        for (int i = 0; i < intervals.length; i++) {
+            intervals[i] = 100 + 15 * random.nextGaussian();
+        }
+
+        assertTrue(PeriodicityDetector.score(intervals, MAX_LAG) < 0.3);
+    }
+
+    @Test
+    public void isolatedLateClicksInSteadyTimingAreNotAPeriod() {
+        // Two late clicks 20 clicks apart; alone they make up the whole variance and correlate at lag 20
+        double[] intervals = new double[WINDOW];
+        Arrays.fill(intervals, 100);
+        intervals[100] = 150;
+        intervals[101] = 50;
+        intervals[120] = 150;
+        intervals[121] = 50;
+
+        assertEquals(0.0, PeriodicityDetector.score(intervals, MAX_LAG), 0.0);
+    }
+
+    @Test
+    public void lateClicksRepeatingLessThanTwoFullPeriodsAreNotAPeriod() {
+        // Slightly noisy timing, so most differences change; three late clicks 20 clicks apart
+        Random random = new Random(10);
+        double[] intervals = new double[WINDOW];
+        for (int i = 0; i < intervals.length; i++) {
+            intervals[i] = 100 + 3 * random.nextGaussian();
+        }
+        for (int start = 100; start <= 140; start += 20) {
+            intervals[start] = 150;
+            intervals[start + 1] = 50;
+        }
+
+        assertTrue(PeriodicityDetector.score(intervals, MAX_LAG) < 0.5);
+    }
+
+    @Test
+    public void rarelyChangingIntervalsAreNotScored() {
+        // A late click every 16 clicks repeats, but only 3 in 16 differences change the interval
+        double[] intervals = new double[WINDOW];
+        Arrays.fill(intervals, 100);
+        for (int start = 0; start + 1 < intervals.length; start += 16) {
+            intervals[start] = 150;
+            intervals[start + 1] = 50;
+        }
+
+        assertEquals(0.0, PeriodicityDetector.score(intervals, MAX_LAG), 0.0);
+    }
+
+    @Test
+    public void constantTimingHasNoPeriod() {
+        double[] intervals = new double[WINDOW];
+        Arrays.fill(intervals, 100);
+
+        assertEquals(0.0, PeriodicityDetector.score(intervals, MAX_LAG), 0.0);
+    }
+}
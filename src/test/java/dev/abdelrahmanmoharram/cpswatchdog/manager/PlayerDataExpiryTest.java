@@ -0,0 +1,239 @@
+package dev.abdelrahmanmoharram.cpswatchdog.manager;
+
+import dev.abdelrahmanmoharram.cpswatchdog.data.PlayerCPSData;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PlayerDataExpiryTest {
+    private static final long TICK = 50;
+    private static final int WHEEL_SIZE = 512;
+
+    private final Map<UUID, PlayerCPSData> players = new HashMap<>();
+    private int checks;
+    private boolean busy;
+    private boolean deferMainThread; // Hold main thread tasks in mainThreadTasks instead of running them at once
+    private final List<Runnable> mainThreadTasks = new ArrayList<>();
+    private final PlayerDataExpiry.Owner owner = new PlayerDataExpiry.Owner() {
+        @Override
+        public boolean isTracked(UUID playerUUID, PlayerCPSData data) {
+            checks++;
+            return players.get(playerUUID) == data;
+        }
+
+        @Override
+        public boolean isBusy(UUID playerUUID, PlayerCPSData data) {
+            return busy;
+        }
+
+        @Override
+        public boolean expire(UUID playerUUID, PlayerCPSData data) {
+            return players.remove(playerUUID, data);
+        }
+
+        @Override
+        public void runOnMainThread(Runnable task) {
+            if (deferMainThread) {
+                mainThreadTasks.add(task);
+            } else {
+                task.run();
+            }
+        }
+    };
+
+    private UUID add(PlayerDataExpiry expiry, long now) {
+        UUID playerUUID = UUID.randomUUID();
+        PlayerCPSData data = new PlayerCPSData("player");
+        data.touch(now);
+        players.put(playerUUID, data);
+        expiry.track(playerUUID, data);
+        return playerUUID;
+    }
+
+    // Turns the wheel one tick at a time, like the timer does
+    private static void advanceTo(PlayerDataExpiry expiry, long from, long to) {
+        for (long now = from; now <= to; now += TICK) {
+            expiry.advance(now);
+        }
+    }
+
+    @Test
+    public void expiresAfterSessionTimeout() {
+        long start = 1_000_000;
+        PlayerDataExpiry expiry = new PlayerDataExpiry(owner, TICK, 1000, 500);
+        UUID playerUUID = add(expiry, start);
+
+        advanceTo(expiry, start, start + 950);
+        assertTrue(players.containsKey(playerUUID));
+
+        advanceTo(expiry, start + 1000, start + 1050);
+        assertFalse(players.containsKey(playerUUID));
+        assertEquals(1, expiry.getEvictedCount());
+        assertEquals(0, expiry.getScheduledCount());
+    }
+
+    @Test
+    public void activityMovesTheDeadline() {
+        long start = 1_000_000;
+        PlayerDataExpiry expiry = new PlayerDataExpiry(owner, TICK, 1000, 500);
+        UUID playerUUID = add(expiry, start);
+
+        advanceTo(expiry, start, start + 800);
+        players.get(playerUUID).touch(start + 800);
+
+        advanceTo(expiry, start + 850, start + 1750);
+        assertTrue(players.containsKey(playerUUID));
+        assertEquals(1, expiry.getScheduledCount());
+
+        advanceTo(expiry, start + 1800, start + 1850);
+        assertFalse(players.containsKey(playerUUID));
+    }
+
+    @Test
+    public void timeoutsLongerThanTheWheelWaitForTheirRound() {
+        long start = 1_000_000;
+        long timeout = 3 * WHEEL_SIZE * TICK + 200; // Three full rotations and then some
+        PlayerDataExpiry expiry = new PlayerDataExpiry(owner, TICK, timeout, 500);
+        UUID playerUUID = add(expiry, start);
+
+        advanceTo(expiry, start, start + timeout - TICK);
+        assertTrue(players.containsKey(playerUUID));
+
+        advanceTo(expiry, start + timeout, start + timeout + TICK);
+        assertFalse(players.containsKey(playerUUID));
+    }
+
+    @Test
+    public void entriesAreOnlyCheckedWhenDue() {
+        long start = 1_000_000;
+        long timeout = 3 * WHEEL_SIZE * TICK + 200;
+        PlayerDataExpiry expiry = new PlayerDataExpiry(owner, TICK, timeout, 500);
+        add(expiry, start);
+
+        // Passing the entry's slot in earlier rounds must not look at the player; once due,
+        // the timer and then the main thread check it
+        advanceTo(expiry, start, start + timeout + TICK);
+        assertEquals(2, checks);
+    }
+
+    @Test
+    public void largeJumpsProcessEverySlotInBetween() {
+        long start = 1_000_000;
+        long timeout = 2 * WHEEL_SIZE * TICK + 100;
+        PlayerDataExpiry expiry = new PlayerDataExpiry(owner, TICK, timeout, 500);
+        UUID playerUUID = add(expiry, start);
+
+        expiry.advance(start);
+        expiry.advance(start + timeout - TICK);
+        assertTrue(players.containsKey(playerUUID));
+
+        expiry.advance(start + timeout);
+        assertFalse(players.containsKey(playerUUID));
+    }
+
+    @Test
+    public void deadlinesWrapPastTheLastSlot() {
+        // The player's deadline falls a few slots after the wheel wraps back to slot 0
+        long start = (7L * WHEEL_SIZE + WHEEL_SIZE - 2) * TICK;
+        PlayerDataExpiry expiry = new PlayerDataExpiry(owner, TICK, 5 * TICK, 500);
+        UUID playerUUID = add(expiry, start);
+
+        advanceTo(expiry, start, start + 4 * TICK);
+        assertTrue(players.containsKey(playerUUID));
+
+        advanceTo(expiry, start + 5 * TICK, start + 5 * TICK);
+        assertFalse(players.containsKey(playerUUID));
+    }
+
+    @Test
+    public void quitPlayersExpireAfterTheGracePeriod() {
+        long start = 1_000_000;
+        PlayerDataExpiry expiry = new PlayerDataExpiry(owner, TICK, 60_000, 500);
+        UUID playerUUID = add(expiry, start);
+        expiry.demote(playerUUID, players.get(playerUUID), start + 100);
+
+        advanceTo(expiry, start, start + 550);
+        assertTrue(players.containsKey(playerUUID));
+
+        advanceTo(expiry, start + 600, start + 650);
+        assertFalse(players.containsKey(playerUUID));
+    }
+
+    @Test
+    public void clickingAfterQuittingCancelsTheGracePeriod() {
+        long start = 1_000_000;
+        PlayerDataExpiry expiry = new PlayerDataExpiry(owner, TICK, 60_000, 500);
+        UUID playerUUID = add(expiry, start);
+        expiry.demote(playerUUID, players.get(playerUUID), start + 100);
+        players.get(playerUUID).touch(start + 300);
+
+        advanceTo(expiry, start, start + 5000);
+        assertTrue(players.containsKey(playerUUID));
+    }
+
+    @Test
+    public void clickingBeforeTheMainThreadRemovesTheDataKeepsIt() {
+        long start = 1_000_000;
+        PlayerDataExpiry expiry = new PlayerDataExpiry(owner, TICK, 1000, 500);
+        UUID playerUUID = add(expiry, start);
+        deferMainThread = true;
+
+        advanceTo(expiry, start, start + 1000);
+        assertEquals(1, mainThreadTasks.size());
+
+        // The click lands after the timer found the entry due but before the batch runs
+        players.get(playerUUID).touch(start + 1020);
+        mainThreadTasks.remove(0).run();
+        assertTrue(players.containsKey(playerUUID));
+        assertEquals(1, expiry.getScheduledCount());
+
+        advanceTo(expiry, start + 1050, start + 2000);
+        assertTrue(mainThreadTasks.isEmpty());
+
+        advanceTo(expiry, start + 2050, start + 2050);
+        mainThreadTasks.remove(0).run();
+        assertFalse(players.containsKey(playerUUID));
+    }
+
+    @Test
+    public void dataStillBeingAnalyzedExpiresOnceTheWorkerIsDone() {
+        long start = 1_000_000;
+        PlayerDataExpiry expiry = new PlayerDataExpiry(owner, TICK, 1000, 500);
+        UUID playerUUID = add(expiry, start);
+        busy = true;
+
+        advanceTo(expiry, start, start + 1500);
+        assertTrue(players.containsKey(playerUUID));
+        assertEquals(1, expiry.getScheduledCount());
+
+        busy = false;
+        advanceTo(expiry, start + 1550, start + 1550);
+        assertFalse(players.containsKey(playerUUID));
+        assertEquals(1, expiry.getEvictedCount());
+    }
+
+    @Test
+    public void replacedDataIsNotExpired() {
+        long start = 1_000_000;
+        PlayerDataExpiry expiry = new PlayerDataExpiry(owner, TICK, 1000, 500);
+        UUID playerUUID = add(expiry, start);
+
+        // The player's data was discarded and recreated later; the old entry is stale
+        PlayerCPSData replacement = new PlayerCPSData("player");
+        replacement.touch(start + 900);
+        players.put(playerUUID, replacement);
+
+        advanceTo(expiry, start, start + 1500);
+        assertSame(replacement, players.get(playerUUID));
+        assertEquals(0, expiry.getEvictedCount());
+    }
+}
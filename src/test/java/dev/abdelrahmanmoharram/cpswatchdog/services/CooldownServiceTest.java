@@ -0,0 +1,117 @@
+package dev.abdelrahmanmoharram.cpswatchdog.services;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CooldownServiceTest {
+    private CooldownService service;
+
+    @Before
+    public void setUp() {
+        service = new CooldownService();
+    }
+
+    // Sets the cooldown and returns a time no earlier than the moment it was set
+    private static long setCooldown(CooldownService.Channel channel, UUID uuid) {
+        channel.setCooldown(uuid);
+        return System.currentTimeMillis();
+    }
+
+    // Turns the wheel one second at a time, like the scheduled task does
+    private void advanceTo(long from, long to) {
+        for (long now = from; now <= to; now += 1000) {
+            service.advance(now);
+        }
+    }
+
+    @Test
+    public void shortCooldownsAreRemovedOnceExpired() {
+        long start = setCooldown(service.channel("short", 10), UUID.randomUUID());
+
+        advanceTo(start, start + 9000);
+        assertEquals(1, service.getActiveCooldownCount());
+
+        service.advance(start + 10000);
+        assertEquals(0, service.getActiveCooldownCount());
+    }
+
+    @Test
+    public void longCooldownsCascadeFromTheOuterWheel() {
+        long start = setCooldown(service.channel("long", 300), UUID.randomUUID());
+
+        advanceTo(start, start + 299000);
+        assertEquals(1, service.getActiveCooldownCount());
+
+        service.advance(start + 300000);
+        assertEquals(0, service.getActiveCooldownCount());
+    }
+
+    @Test
+    public void cooldownsBeyondTheOuterWheelWaitForTheirRound() {
+        // 64 * 64 seconds is the outer wheel's range, so both wheels wrap before this expires
+        long start = setCooldown(service.channel("daily", 5000), UUID.randomUUID());
+
+        advanceTo(start, start + 4999000);
+        assertEquals(1, service.getActiveCooldownCount());
+
+        service.advance(start + 5000000);
+        assertEquals(0, service.getActiveCooldownCount());
+    }
+
+    @Test
+    public void largeJumpsProcessEverySlotInBetween() {
+        service.channel("short", 10).setCooldown(UUID.randomUUID());
+        long start = setCooldown(service.channel("long", 300), UUID.randomUUID());
+
+        service.advance(start + 300000);
+        assertEquals(0, service.getActiveCooldownCount());
+    }
+
+    @Test
+    public void channelsExpireIndependently() {
+        CooldownService.Channel shortChannel = service.channel("short", 5);
+        CooldownService.Channel longChannel = service.channel("long", 100);
+        UUID uuid = UUID.randomUUID();
+        shortChannel.setCooldown(uuid);
+        long start = setCooldown(longChannel, uuid);
+
+        advanceTo(start, start + 6000);
+        assertEquals(0, shortChannel.getActiveCooldownCount());
+        assertEquals(1, longChannel.getActiveCooldownCount());
+        assertTrue(longChannel.isOnCooldown(uuid));
+    }
+
+    @Test
+    public void removedCooldownsLeaveNoStaleEntryBehind() {
+        CooldownService.Channel channel = service.channel("short", 10);
+        UUID uuid = UUID.randomUUID();
+        channel.setCooldown(uuid);
+
+        assertTrue(channel.removeCooldown(uuid));
+        assertFalse(channel.isOnCooldown(uuid));
+        assertFalse(channel.removeCooldown(uuid));
+
+        // The old wheel entry must not remove the new cooldown when its slot comes due
+        long start = setCooldown(channel, uuid);
+        advanceTo(start, start + 9000);
+        assertEquals(1, service.getActiveCooldownCount());
+
+        service.advance(start + 10000);
+        assertEquals(0, service.getActiveCooldownCount());
+    }
+
+    @Test
+    public void channelsKeepTheirFirstDuration() {
+        CooldownService.Channel channel = service.channel("command", 30);
+        assertSame(channel, service.channel("command", 60));
+        assertEquals(30, channel.getCooldownDuration());
+        assertEquals(1, service.getChannels().size());
+    }
+}